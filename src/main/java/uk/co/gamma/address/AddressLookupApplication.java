@@ -2,9 +2,13 @@ package uk.co.gamma.address;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableRetry
+@EnableScheduling
+@ConfigurationPropertiesScan
 @SpringBootApplication
 public class AddressLookupApplication {
 
@@ -0,0 +1,329 @@
+package uk.co.gamma.address.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for reading and writing addresses, bound from the {@code address.*} properties.
+ */
+@ConfigurationProperties(prefix = "address")
+public class AddressProperties {
+
+    private final Lookup lookup = new Lookup();
+    private final Async async = new Async();
+    private final Bulk bulk = new Bulk();
+    private final CsvImport csvImport = new CsvImport();
+    private final Cache cache = new Cache();
+    private final PostcodeFilter postcodeFilter = new PostcodeFilter();
+    private final Listing listing = new Listing();
+    private final EntityCache entityCache = new EntityCache();
+    private final CompactStore compactStore = new CompactStore();
+
+    public Lookup getLookup() {
+        return lookup;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public CsvImport getCsvImport() {
+        return csvImport;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public PostcodeFilter getPostcodeFilter() {
+        return postcodeFilter;
+    }
+
+    public Listing getListing() {
+        return listing;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public CompactStore getCompactStore() {
+        return compactStore;
+    }
+
+    /**
+     * Postcode lookup settings. The database query runs on its own executor while the blacklist is checked,
+     * and is cancelled once {@code timeout} has elapsed. The same timeout, rounded up to seconds, bounds the query
+     * in the database. Batch lookups query at most {@code inClauseSize} postcodes per {@code IN} list.
+     */
+    public static class Lookup {
+
+        private Duration timeout = Duration.ofSeconds(10);
+        private int inClauseSize = 500;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getInClauseSize() {
+            return inClauseSize;
+        }
+
+        public void setInClauseSize(int inClauseSize) {
+            this.inClauseSize = inClauseSize;
+        }
+    }
+
+    /**
+     * Settings for the asynchronous endpoints. Requests are served on an executor of up to {@code maxThreads} threads
+     * so that servlet threads are released while the blacklist is read, and fail with 503 after {@code timeout}.
+     */
+    public static class Async {
+
+        private Duration timeout = Duration.ofSeconds(15);
+        private int maxThreads = 200;
+        private int queueCapacity = 1000;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        public void setMaxThreads(int maxThreads) {
+            this.maxThreads = maxThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Bulk create settings. Addresses are written in chunks of {@code chunkSize}, each in its own transaction,
+     * and sent to the database as JDBC batches of {@code batchSize} inserts.
+     */
+    public static class Bulk {
+
+        private int batchSize = 50;
+        private int chunkSize = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * CSV import settings. Lines are parsed and validated in chunks of {@code chunkSize} on up to {@code parallelism}
+     * threads. At most {@code maxPendingChunks} chunks are read ahead of the writer, and the first
+     * {@code maxReportedErrors} rejected lines are reported.
+     */
+    public static class CsvImport {
+
+        private int chunkSize = 1000;
+        private int parallelism = 4;
+        private int maxPendingChunks = 8;
+        private int maxReportedErrors = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxPendingChunks() {
+            return maxPendingChunks;
+        }
+
+        public void setMaxPendingChunks(int maxPendingChunks) {
+            this.maxPendingChunks = maxPendingChunks;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    /**
+     * Settings for the cache of addresses by id. At most {@code maximumSize} ids are kept, an address for {@code ttl}
+     * and the absence of an address for {@code negativeTtl}.
+     */
+    public static class Cache {
+
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+        private Duration negativeTtl = Duration.ofSeconds(30);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        public void setNegativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+    }
+
+    /**
+     * Settings for the Bloom filter of known postcodes. It is sized for {@code headroom} times the postcodes held
+     * when it is built, at a {@code falsePositiveRate}, and rebuilt every {@code rebuildInterval} to forget deleted postcodes.
+     */
+    public static class PostcodeFilter {
+
+        private double falsePositiveRate = 0.01;
+        private double headroom = 2;
+        private Duration rebuildInterval = Duration.ofHours(1);
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public double getHeadroom() {
+            return headroom;
+        }
+
+        public void setHeadroom(double headroom) {
+            this.headroom = headroom;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
+
+    /**
+     * Settings for the full address listing. When {@code serializedSnapshot} is set the listing is served from JSON
+     * bytes serialized once per version of the data and of the blacklist.
+     */
+    public static class Listing {
+
+        private boolean serializedSnapshot;
+
+        public boolean isSerializedSnapshot() {
+            return serializedSnapshot;
+        }
+
+        public void setSerializedSnapshot(boolean serializedSnapshot) {
+            this.serializedSnapshot = serializedSnapshot;
+        }
+    }
+
+    /**
+     * Settings for Hibernate's second-level cache. At most {@code entityMaximumSize} address entities and
+     * {@code queryMaximumSize} query results are kept, each for {@code ttl}.
+     */
+    public static class EntityCache {
+
+        private long entityMaximumSize = 10_000;
+        private long queryMaximumSize = 1_000;
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public long getEntityMaximumSize() {
+            return entityMaximumSize;
+        }
+
+        public void setEntityMaximumSize(long entityMaximumSize) {
+            this.entityMaximumSize = entityMaximumSize;
+        }
+
+        public long getQueryMaximumSize() {
+            return queryMaximumSize;
+        }
+
+        public void setQueryMaximumSize(long queryMaximumSize) {
+            this.queryMaximumSize = queryMaximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Settings for the compact in-memory copy of the address table. When {@code enabled} it is loaded once the
+     * application is ready and then serves reads by id and the listings instead of the database.
+     */
+    public static class CompactStore {
+
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
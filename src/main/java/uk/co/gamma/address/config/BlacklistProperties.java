@@ -0,0 +1,160 @@
+package uk.co.gamma.address.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the postcode blacklist, bound from the {@code blacklist.*} properties.
+ */
+@ConfigurationProperties(prefix = "blacklist")
+public class BlacklistProperties {
+
+    private final Cache cache = new Cache();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Hedging hedging = new Hedging();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    /**
+     * Snapshot cache settings.
+     * A snapshot older than {@code ttl} is still served but triggers a background refresh,
+     * a snapshot older than {@code maxStaleness} is never served.
+     */
+    public static class Cache {
+
+        private Duration ttl = Duration.ofMinutes(1);
+        private Duration maxStaleness = Duration.ofMinutes(10);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getMaxStaleness() {
+            return maxStaleness;
+        }
+
+        public void setMaxStaleness(Duration maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+    }
+
+    /**
+     * Circuit breaker settings for the blacklist upstream.
+     * While the breaker is open, the last snapshot keeps being served for up to {@code fallbackMaxStaleness}.
+     */
+    public static class CircuitBreaker {
+
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 50;
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        private int slidingWindowSize = 10;
+        private int minimumNumberOfCalls = 5;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private Duration fallbackMaxStaleness = Duration.ofHours(1);
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public Duration getFallbackMaxStaleness() {
+            return fallbackMaxStaleness;
+        }
+
+        public void setFallbackMaxStaleness(Duration fallbackMaxStaleness) {
+            this.fallbackMaxStaleness = fallbackMaxStaleness;
+        }
+    }
+
+    /**
+     * Hedging settings. When enabled a second upstream call is started if the first one has not answered
+     * within {@code delay}, or straight away if it failed, and the first result to arrive is used.
+     */
+    public static class Hedging {
+
+        private boolean enabled;
+        private Duration delay = Duration.ofMillis(2500);
+        private int maxConcurrentHedges = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getDelay() {
+            return delay;
+        }
+
+        public void setDelay(Duration delay) {
+            this.delay = delay;
+        }
+
+        public int getMaxConcurrentHedges() {
+            return maxConcurrentHedges;
+        }
+
+        public void setMaxConcurrentHedges(int maxConcurrentHedges) {
+            this.maxConcurrentHedges = maxConcurrentHedges;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package uk.co.gamma.address.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+
+/**
+ * Hibernate's second-level cache, held in bounded Caffeine caches behind JCache. Hibernate is handed the
+ * {@link CacheManager} and fails to start if it needs a region that is not created here, so that no region
+ * is ever created unbounded.
+ */
+@Configuration
+public class EntityCacheConfiguration {
+
+    public static final String ADDRESS_REGION = AddressEntity.class.getName();
+    public static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * entityCacheManager creates the second-level cache regions: address entities and query results, bounded and
+     * expiring, and the update timestamps, which hold one entry per table and must never be evicted.
+     * Each application context gets its own manager, so that contexts on different databases never share entries.
+     *
+     * @param addressProperties {@link AddressProperties}
+     * @return the {@link CacheManager}.
+     */
+    @Bean
+    public CacheManager entityCacheManager(AddressProperties addressProperties) {
+        AddressProperties.EntityCache entityCache = addressProperties.getEntityCache();
+        CachingProvider cachingProvider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager(
+                URI.create(EntityCacheConfiguration.class.getName() + "-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(ADDRESS_REGION, bounded(entityCache.getEntityMaximumSize(), entityCache));
+        cacheManager.createCache(QUERY_RESULTS_REGION, bounded(entityCache.getQueryMaximumSize(), entityCache));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, configuration());
+        return cacheManager;
+    }
+
+    /**
+     * entityCacheProperties hands the {@link CacheManager} to Hibernate.
+     *
+     * @param entityCacheManager the {@link CacheManager} holding the regions.
+     * @return the {@link HibernatePropertiesCustomizer}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, AddressProperties.EntityCache entityCache) {
+        CaffeineConfiguration<Object, Object> configuration = configuration();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(entityCache.getTtl().toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate stores its own immutable cache entries, so there is nothing to gain from copying them
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
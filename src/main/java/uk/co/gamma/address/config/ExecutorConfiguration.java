@@ -0,0 +1,99 @@
+package uk.co.gamma.address.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used to run slow work off the calling thread.
+ */
+@Configuration
+public class ExecutorConfiguration {
+
+    /**
+     * blacklistExecutor runs calls to the blacklist upstream. It does not queue: a call that finds every thread busy is rejected.
+     *
+     * @return the {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor blacklistExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("blacklist-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(0);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * blacklistFlagsExecutor rewrites the blacklisted flags of the address table after a blacklist refresh, one
+     * rewrite at a time, so that a refresh made on a request thread does not run it there.
+     *
+     * @return the {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor blacklistFlagsExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("blacklist-flags-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * addressLookupExecutor runs database lookups that overlap with a blacklist check.
+     * When it is saturated the lookup runs on the calling thread instead.
+     *
+     * @return the {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor addressLookupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("address-lookup-");
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(100);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * addressIoExecutor serves the asynchronous endpoints, blocking on the database and the blacklist
+     * instead of the servlet container threads.
+     *
+     * @param addressProperties {@link AddressProperties}
+     * @return the {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor addressIoExecutor(AddressProperties addressProperties) {
+        AddressProperties.Async async = addressProperties.getAsync();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("address-io-");
+        executor.setCorePoolSize(async.getMaxThreads());
+        executor.setMaxPoolSize(async.getMaxThreads());
+        executor.setQueueCapacity(async.getQueueCapacity());
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * addressImportExecutor parses and validates the chunks of a CSV import. The importing thread bounds how many
+     * chunks are queued, so the queue itself is not bounded.
+     *
+     * @param addressProperties {@link AddressProperties}
+     * @return the {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor addressImportExecutor(AddressProperties addressProperties) {
+        int parallelism = addressProperties.getCsvImport().getParallelism();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("address-import-");
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -4,12 +4,22 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,41 +27,224 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.co.gamma.address.config.AddressProperties;
 import uk.co.gamma.address.exception.AddressNotFoundException;
+import uk.co.gamma.address.exception.AddressReadRejectedException;
 import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.AddressImportReport;
+import uk.co.gamma.address.model.AddressPage;
+import uk.co.gamma.address.model.BulkAddressResult;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.service.AddressBulkService;
+import uk.co.gamma.address.service.AddressEtags;
+import uk.co.gamma.address.service.AddressExportService;
+import uk.co.gamma.address.service.AddressImportService;
 import uk.co.gamma.address.service.AddressService;
 import uk.co.gamma.address.service.BlackListService;
+import uk.co.gamma.address.service.SerializedAddressListing;
 
 @RestController
 @RequestMapping(value = "/addresses", produces = MediaType.APPLICATION_JSON_VALUE)
 @Validated
 public class AddressController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String CSV_VALUE = "text/csv";
+    static final int MAX_SUGGESTIONS = 50;
+    static final int MAX_SEARCH_RESULTS = 100;
+    static final String GZIP = "gzip";
+
     private final AddressService addressService;
+    private final AddressExportService addressExportService;
+    private final AddressBulkService addressBulkService;
+    private final AddressImportService addressImportService;
+    private final Executor addressIoExecutor;
+    private final SerializedAddressListing serializedAddressListing;
+    private final AddressEtags addressEtags;
+    private final Duration asyncTimeout;
+    private final boolean serializedListing;
 
+    /**
+     * Constructor.
+     *
+     * @param addressService    {@link AddressService}
+     * @param addressExportService {@link AddressExportService}
+     * @param addressBulkService {@link AddressBulkService}
+     * @param addressImportService {@link AddressImportService}
+     * @param serializedAddressListing {@link SerializedAddressListing}, used when {@code address.listing.serialized-snapshot} is set.
+     * @param addressEtags {@link AddressEtags}
+     * @param addressIoExecutor runs the asynchronous endpoints.
+     * @param addressProperties {@link AddressProperties}
+     */
     @Autowired
-    public AddressController(AddressService addressService) {
+    public AddressController(AddressService addressService, AddressExportService addressExportService, AddressBulkService addressBulkService,
+                             AddressImportService addressImportService, SerializedAddressListing serializedAddressListing, AddressEtags addressEtags,
+                             @Qualifier("addressIoExecutor") Executor addressIoExecutor, AddressProperties addressProperties) {
         this.addressService = addressService;
+        this.addressExportService = addressExportService;
+        this.addressBulkService = addressBulkService;
+        this.addressImportService = addressImportService;
+        this.serializedAddressListing = serializedAddressListing;
+        this.addressEtags = addressEtags;
+        this.addressIoExecutor = addressIoExecutor;
+        this.asyncTimeout = addressProperties.getAsync().getTimeout();
+        this.serializedListing = addressProperties.getListing().isSerializedSnapshot();
     }
 
     @ApiResponse(responseCode = "200", description = "Returns list of all addresses", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Address.class))))
+    @ApiResponse(responseCode = "304", description = "The addresses did not change since the tag in If-None-Match was issued")
     @GetMapping
-    public List<Address> list(@RequestParam(value = "postcode", required = false) String postcode,
-                              @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+    public ResponseEntity<?> list(@RequestParam(value = "postcode", required = false) String postcode,
+                                  @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted,
+                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = addressEtags.forListing(includeBlacklisted);
+        if (serializedListing && StringUtils.isBlank(postcode)) {
+            boolean gzip = acceptsGzip(acceptEncoding);
+            String encodedEtag = gzip ? etag.substring(0, etag.length() - 1) + "-" + GZIP + "\"" : etag;
+            if (AddressEtags.matches(ifNoneMatch, encodedEtag)) {
+                return notModified(encodedEtag);
+            }
+            SerializedAddressListing.Listing listing = serializedAddressListing.get(includeBlacklisted);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .eTag(encodedEtag);
+            if (gzip) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(listing.gzip());
+            }
+            return response.body(listing.json());
+        }
+        if (AddressEtags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(find(postcode, includeBlacklisted));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private List<Address> find(String postcode, boolean includeBlacklisted) {
         if (StringUtils.isNotBlank(postcode)) {
             return addressService.getByPostcode(postcode, includeBlacklisted);
         }
         return addressService.getAll(includeBlacklisted);
     }
 
+    /**
+     * acceptsGzip checks an Accept-Encoding header for gzip, honouring {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].strip())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @ApiResponse(responseCode = "200", description = "Returns one page of addresses ordered by id. The X-Next-Cursor header holds the cursor of the next page, if any",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Address.class))))
+    @ApiResponse(responseCode = "400", description = "The cursor is not valid")
+    @GetMapping(params = {"limit", "!postcode"})
+    public ResponseEntity<List<Address>> page(@RequestParam(value = "limit") int limit,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "after_id", required = false) Integer afterId,
+                                              @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        Integer start = cursor != null ? PageCursor.decode(cursor) : afterId;
+        AddressPage page = addressService.getPage(start, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), includeBlacklisted);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextAfterId() != null) {
+            response.header(NEXT_CURSOR_HEADER, PageCursor.encode(page.nextAfterId()));
+        }
+        return response.body(page.addresses());
+    }
+
+    @ApiResponse(responseCode = "200", description = "Returns up to limit (max 50) known postcodes starting with the prefix, in alphabetical order",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = PostcodeSuggestion.class))))
+    @GetMapping("/suggest")
+    public List<PostcodeSuggestion> suggest(@RequestParam(value = "prefix") String prefix,
+                                            @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                            @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        return addressService.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)), includeBlacklisted);
+    }
+
+    @ApiResponse(responseCode = "200", description = "Returns up to limit (max 100) addresses containing every term of q, ordered by id. A term ending with * matches as a prefix",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Address.class))))
+    @GetMapping("/search")
+    public List<Address> search(@RequestParam(value = "q") String query,
+                                @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        return addressService.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)), includeBlacklisted);
+    }
+
+    @ApiResponse(responseCode = "200", description = "Returns list of all addresses without holding a servlet thread while the blacklist is read",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = Address.class))))
+    @ApiResponse(responseCode = "503", description = "The addresses could not be read within the request timeout, or too many reads are already queued")
+    @GetMapping("/async")
+    public DeferredResult<List<Address>> listAsync(@RequestParam(value = "postcode", required = false) String postcode,
+                                                   @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        DeferredResult<List<Address>> result = new DeferredResult<>(asyncTimeout.toMillis());
+        // unlike a CompletableFuture, a FutureTask interrupts the thread running it when cancelled
+        FutureTask<Void> addresses = new FutureTask<>(() -> {
+            try {
+                result.setResult(find(postcode, includeBlacklisted));
+            } catch (Throwable t) {
+                // errors too, the FutureTask would otherwise keep them and the request wait for its timeout
+                result.setErrorResult(t);
+            }
+        }, null);
+        try {
+            addressIoExecutor.execute(addresses);
+        } catch (RejectedExecutionException ree) {
+            result.setErrorResult(new AddressReadRejectedException());
+            return result;
+        }
+        result.onTimeout(() -> addresses.cancel(true));
+        return result;
+    }
+
+    @ApiResponse(responseCode = "200", description = "Streams every address as newline delimited JSON, one address per line",
+            content = @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = Address.class)))
+    @GetMapping(value = "/export", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(addressExportService.export(includeBlacklisted));
+    }
+
+    @ApiResponse(responseCode = "200", description = "Returns a map from each requested postcode to its addresses, read with one blacklist snapshot")
+    @PostMapping("/lookup")
+    public Map<String, List<Address>> lookup(@RequestBody List<String> postcodes,
+                                             @RequestParam(value = "include_blacklisted", required = false) boolean includeBlacklisted) {
+        return addressService.getByPostcodes(postcodes, includeBlacklisted);
+    }
+
     @ApiResponse(responseCode = "200", description = "Address returned", content = @Content(schema = @Schema(implementation = Address.class)))
+    @ApiResponse(responseCode = "304", description = "The address did not change since the tag in If-None-Match was issued")
     @GetMapping("/{id}")
-    public Address get(@PathVariable Integer id) {
-        return addressService.getById(id).orElseThrow(() -> new AddressNotFoundException(id));
+    public ResponseEntity<Address> get(@PathVariable Integer id,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Address address = addressService.getById(id).orElseThrow(() -> new AddressNotFoundException(id));
+        String etag = addressEtags.forAddress(address);
+        if (AddressEtags.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(address);
     }
 
     @ApiResponse(responseCode = "201", description = "Address successfully created", content = @Content(schema = @Schema(implementation = Address.class)))
@@ -62,6 +255,21 @@ public class AddressController {
         return addressService.create(address);
     }
 
+    @ApiResponse(responseCode = "200", description = "One result per address, in request order, saying whether it was created, invalid or failed to be stored",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = BulkAddressResult.class))))
+    @PostMapping("/bulk")
+    public List<BulkAddressResult> postBulk(@RequestBody List<Address> addresses) {
+        return addressBulkService.createAll(addresses);
+    }
+
+    @ApiResponse(responseCode = "200", description = "Imports a CSV with the header building,street,town,postcode and reports the lines imported and rejected",
+            content = @Content(schema = @Schema(implementation = AddressImportReport.class)))
+    @ApiResponse(responseCode = "400", description = "The CSV does not start with the expected header")
+    @PostMapping(value = "/import", consumes = {CSV_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public AddressImportReport importCsv(InputStream csv) throws IOException {
+        return addressImportService.importCsv(csv);
+    }
+
     @ApiResponse(responseCode = "200", description = "Address successfully amended", content = @Content(schema = @Schema(implementation = Address.class)))
     @PutMapping("/{id}")
     public Address put(@PathVariable Integer id, @Valid @RequestBody Address address) {
@@ -0,0 +1,65 @@
+package uk.co.gamma.address.controller;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.config.EntityCacheConfiguration;
+
+/**
+ * Entity cache endpoint publishes the hits, misses and puts of Hibernate's second-level cache at
+ * {@code /actuator/entitycache}, for the address entities and the query results.
+ */
+@Component
+@Endpoint(id = "entitycache")
+public class EntityCacheEndpoint {
+
+    private final Statistics statistics;
+
+    @Autowired
+    EntityCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * statistics reads the counters since startup. They stay at zero while {@code hibernate.generate_statistics}
+     * is off.
+     *
+     * @return {@link EntityCacheStatistics}
+     */
+    @ReadOperation
+    public EntityCacheStatistics statistics() {
+        return new EntityCacheStatistics(statistics.isStatisticsEnabled(),
+                RegionStatistics.of(statistics.getDomainDataRegionStatistics(EntityCacheConfiguration.ADDRESS_REGION)),
+                RegionStatistics.of(statistics.getQueryRegionStatistics(EntityCacheConfiguration.QUERY_RESULTS_REGION)));
+    }
+
+    /**
+     * Second-level cache counters.
+     *
+     * @param enabled   whether Hibernate collects statistics.
+     * @param addresses the address entity region.
+     * @param queries   the query results region.
+     */
+    public record EntityCacheStatistics(boolean enabled, RegionStatistics addresses, RegionStatistics queries) {
+    }
+
+    /**
+     * Counters of one cache region.
+     *
+     * @param hits   lookups answered by the cache.
+     * @param misses lookups that went to the database.
+     * @param puts   entries written to the cache.
+     */
+    public record RegionStatistics(long hits, long misses, long puts) {
+
+        static RegionStatistics of(CacheRegionStatistics region) {
+            return region == null ? new RegionStatistics(0, 0, 0)
+                    : new RegionStatistics(region.getHitCount(), region.getMissCount(), region.getPutCount());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package uk.co.gamma.address.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import uk.co.gamma.address.exception.InvalidCursorException;
+
+/**
+ * Encodes the id a page ends at as an opaque cursor, so that clients do not depend on how pages are keyed.
+ */
+final class PageCursor {
+
+    private static final String PREFIX = "id:";
+
+    private PageCursor() {
+    }
+
+    static String encode(Integer afterId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Integer decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException(cursor);
+            }
+            return Integer.valueOf(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
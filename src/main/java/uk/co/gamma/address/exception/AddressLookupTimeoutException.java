@@ -0,0 +1,12 @@
+package uk.co.gamma.address.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class AddressLookupTimeoutException extends RuntimeException {
+
+    public AddressLookupTimeoutException(String postcode) {
+        super("Timed out looking up addresses for postcode %s".formatted(postcode));
+    }
+}
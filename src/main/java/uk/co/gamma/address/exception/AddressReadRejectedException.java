@@ -0,0 +1,12 @@
+package uk.co.gamma.address.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AddressReadRejectedException extends RuntimeException {
+
+    public AddressReadRejectedException() {
+        super("Too many address reads in progress, please retry later");
+    }
+}
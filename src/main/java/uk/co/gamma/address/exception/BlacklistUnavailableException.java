@@ -0,0 +1,13 @@
+package uk.co.gamma.address.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown without calling the blacklist upstream while its circuit breaker is open.
+ */
+public class BlacklistUnavailableException extends IOException {
+
+    public BlacklistUnavailableException(String message) {
+        super(message);
+    }
+}
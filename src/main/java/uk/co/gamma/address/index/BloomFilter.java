@@ -0,0 +1,104 @@
+package uk.co.gamma.address.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over String keys. {@link #mightContain(String)} never returns false for a key that was added,
+ * and returns true for a key that was not added with roughly the configured false positive rate.
+ * Safe for concurrent use.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    private BloomFilter(int numBits, int numHashes) {
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * create sizes a filter for the expected number of keys.
+     *
+     * @param expectedInsertions number of keys the filter is sized for.
+     * @param falsePositiveRate  target false positive rate once expectedInsertions keys were added.
+     * @return an empty {@link BloomFilter}.
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int numBits = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, m));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * LN2));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    /**
+     * put adds a key to the filter.
+     *
+     * @param key the key to add.
+     */
+    public void put(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * mightContain checks the filter for a key.
+     *
+     * @param key the key to check.
+     * @return false if the key was definitely never added.
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < numHashes; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % numBits;
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * expectedFalsePositiveRate estimates the current false positive rate from the share of bits set.
+     *
+     * @return probability that an absent key is reported as present.
+     */
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / numBits, numHashes);
+    }
+
+    private static long hash(String key) {
+        // 64 bit FNV-1a with a murmur3 finalizer, the two halves feed the double hashing above
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
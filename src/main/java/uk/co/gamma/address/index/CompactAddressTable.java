@@ -0,0 +1,255 @@
+package uk.co.gamma.address.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Column store of addresses ordered by id, in primitive arrays. Streets, towns and postcode outward codes repeat
+ * across many addresses, so each is held once in a dictionary and rows keep its {@code int} code. The inward code
+ * of a postcode written in the usual form, such as {@code 7DH}, is packed into a {@code short}; any other postcode
+ * is kept as written. Only the building is held as a {@link String} per row.
+ * {@link Address} records are only created when read, one at a time.
+ * Reads run concurrently, writes take an exclusive lock.
+ */
+public final class CompactAddressTable {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // inward code of a postcode kept as written in rawPostcodes
+    private static final short RAW_POSTCODE = -1;
+
+    private final Dictionary streets = new Dictionary();
+    private final Dictionary towns = new Dictionary();
+    private final Dictionary outwardCodes = new Dictionary();
+    private final Map<Integer, String> rawPostcodes = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private String[] buildings = new String[INITIAL_CAPACITY];
+    private int[] streetCodes = new int[INITIAL_CAPACITY];
+    private int[] townCodes = new int[INITIAL_CAPACITY];
+    private int[] outwardCodeCodes = new int[INITIAL_CAPACITY];
+    private short[] inwardCodes = new short[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * put adds an address, or replaces the one with the same id. Adding ids in ascending order, as a table scan
+     * does, appends without moving any row.
+     *
+     * @param address {@link Address} with an id.
+     */
+    public void put(Address address) {
+        lock.writeLock().lock();
+        try {
+            int slot = Arrays.binarySearch(ids, 0, size, address.id());
+            if (slot < 0) {
+                slot = -slot - 1;
+                insertSlot(slot);
+                ids[slot] = address.id();
+            }
+            encode(slot, address);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * remove takes an address out. Its street, town and outward code stay in the dictionaries.
+     *
+     * @param id the address id.
+     * @return true if there was an address with the id.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = Arrays.binarySearch(ids, 0, size, id);
+            if (slot < 0) {
+                return false;
+            }
+            if (inwardCodes[slot] == RAW_POSTCODE) {
+                rawPostcodes.remove(id);
+            }
+            int moved = size - slot - 1;
+            System.arraycopy(ids, slot + 1, ids, slot, moved);
+            System.arraycopy(buildings, slot + 1, buildings, slot, moved);
+            System.arraycopy(streetCodes, slot + 1, streetCodes, slot, moved);
+            System.arraycopy(townCodes, slot + 1, townCodes, slot, moved);
+            System.arraycopy(outwardCodeCodes, slot + 1, outwardCodeCodes, slot, moved);
+            System.arraycopy(inwardCodes, slot + 1, inwardCodes, slot, moved);
+            buildings[--size] = null;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * get reads one address.
+     *
+     * @param id the address id.
+     * @return the {@link Address}, null if there is none with the id.
+     */
+    public Address get(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = Arrays.binarySearch(ids, 0, size, id);
+            return slot < 0 ? null : materialize(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * page reads up to {@code limit} addresses in id order, skipping those whose postcode is excluded.
+     * Excluded rows are checked on their postcode alone, without creating a record for them.
+     *
+     * @param afterId  only addresses with a greater id are returned.
+     * @param limit    maximum number of addresses returned.
+     * @param excluded tells which postcodes, as written, to skip; null to skip none.
+     * @return {@link Address} list in id order.
+     */
+    public List<Address> page(int afterId, int limit, Predicate<String> excluded) {
+        lock.readLock().lock();
+        try {
+            int slot = Arrays.binarySearch(ids, 0, size, afterId);
+            slot = slot < 0 ? -slot - 1 : slot + 1;
+            List<Address> page = new ArrayList<>(Math.min(limit, size - slot));
+            for (; slot < size && page.size() < limit; slot++) {
+                if (excluded == null || !excluded.test(postcode(slot))) {
+                    page.add(materialize(slot));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * forEach reads every address in id order, creating each record only as it is passed on.
+     * Writes wait until it returns.
+     *
+     * @param action called with each {@link Address}.
+     */
+    public void forEach(Consumer<Address> action) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                action.accept(materialize(slot));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * size counts the addresses held.
+     *
+     * @return number of addresses.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insertSlot(int slot) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            buildings = Arrays.copyOf(buildings, capacity);
+            streetCodes = Arrays.copyOf(streetCodes, capacity);
+            townCodes = Arrays.copyOf(townCodes, capacity);
+            outwardCodeCodes = Arrays.copyOf(outwardCodeCodes, capacity);
+            inwardCodes = Arrays.copyOf(inwardCodes, capacity);
+        }
+        int moved = size - slot;
+        if (moved > 0) {
+            System.arraycopy(ids, slot, ids, slot + 1, moved);
+            System.arraycopy(buildings, slot, buildings, slot + 1, moved);
+            System.arraycopy(streetCodes, slot, streetCodes, slot + 1, moved);
+            System.arraycopy(townCodes, slot, townCodes, slot + 1, moved);
+            System.arraycopy(outwardCodeCodes, slot, outwardCodeCodes, slot + 1, moved);
+            System.arraycopy(inwardCodes, slot, inwardCodes, slot + 1, moved);
+        }
+        size++;
+    }
+
+    private void encode(int slot, Address address) {
+        buildings[slot] = address.building();
+        streetCodes[slot] = streets.encode(address.street());
+        townCodes[slot] = towns.encode(address.town());
+        String postcode = address.postcode();
+        int space = postcode.lastIndexOf(' ');
+        short inward = space < 0 ? RAW_POSTCODE : packInward(postcode, space + 1);
+        if (inward == RAW_POSTCODE || postcode.indexOf(' ') != space || space == 0) {
+            outwardCodeCodes[slot] = -1;
+            inwardCodes[slot] = RAW_POSTCODE;
+            rawPostcodes.put(address.id(), postcode);
+            return;
+        }
+        outwardCodeCodes[slot] = outwardCodes.encode(postcode.substring(0, space));
+        inwardCodes[slot] = inward;
+        rawPostcodes.remove(address.id());
+    }
+
+    private Address materialize(int slot) {
+        return new Address(ids[slot], buildings[slot], streets.value(streetCodes[slot]), towns.value(townCodes[slot]), postcode(slot));
+    }
+
+    private String postcode(int slot) {
+        short inward = inwardCodes[slot];
+        if (inward == RAW_POSTCODE) {
+            return rawPostcodes.get(ids[slot]);
+        }
+        int letters = inward % 676;
+        return outwardCodes.value(outwardCodeCodes[slot]) + ' ' + (char) ('0' + inward / 676)
+                + (char) ('A' + letters / 26) + (char) ('A' + letters % 26);
+    }
+
+    // a digit and two upper case letters, as in the unit "7DH", fit in 10 * 26 * 26 values
+    private static short packInward(String postcode, int from) {
+        if (postcode.length() - from != 3) {
+            return RAW_POSTCODE;
+        }
+        char digit = postcode.charAt(from);
+        char first = postcode.charAt(from + 1);
+        char second = postcode.charAt(from + 2);
+        if (digit < '0' || digit > '9' || first < 'A' || first > 'Z' || second < 'A' || second > 'Z') {
+            return RAW_POSTCODE;
+        }
+        return (short) ((digit - '0') * 676 + (first - 'A') * 26 + (second - 'A'));
+    }
+
+    /**
+     * Distinct strings and their codes, assigned in order of first appearance.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package uk.co.gamma.address.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from terms to the ids of the documents containing them.
+ * Posting lists are sorted primitive {@code int} arrays, so queries intersect and merge them without boxing.
+ * Terms are kept sorted, which lets a prefix term match every term in a range.
+ * Queries run concurrently, updates take an exclusive lock.
+ */
+public final class InvertedIndex {
+
+    private static final int[] NONE = new int[0];
+    // below this size ratio two posting lists are merged, above it the shorter one is binary searched in the longer
+    private static final int GALLOP_RATIO = 32;
+
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * add indexes a document under its terms.
+     *
+     * @param id    the document id.
+     * @param terms the document terms, duplicates are ignored.
+     */
+    public void add(int id, Collection<String> terms) {
+        lock.writeLock().lock();
+        try {
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * remove takes a document out of the posting lists of the given terms, dropping terms left without documents.
+     *
+     * @param id    the document id.
+     * @param terms the terms the document was added with.
+     */
+    public void remove(int id, Collection<String> terms) {
+        lock.writeLock().lock();
+        try {
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * search finds the documents containing every term and, for every prefix, at least one term starting with it.
+     *
+     * @param terms    terms that must match exactly.
+     * @param prefixes prefixes that must each match a term.
+     * @return the matching document ids in ascending order, empty if there is no term or prefix.
+     */
+    public int[] search(Collection<String> terms, Collection<String> prefixes) {
+        if (terms.isEmpty() && prefixes.isEmpty()) {
+            return NONE;
+        }
+        lock.readLock().lock();
+        try {
+            List<Ids> lists = new ArrayList<>(terms.size() + prefixes.size());
+            for (String term : Set.copyOf(terms)) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return NONE;
+                }
+                lists.add(new Ids(list.ids, list.size));
+            }
+            for (String prefix : Set.copyOf(prefixes)) {
+                int[] union = union(prefix);
+                if (union.length == 0) {
+                    return NONE;
+                }
+                lists.add(new Ids(union, union.length));
+            }
+            lists.sort(Comparator.comparingInt(Ids::size));
+            Ids result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.size() > 0; i++) {
+                int[] intersection = intersect(result, lists.get(i));
+                result = new Ids(intersection, intersection.length);
+            }
+            // a single term's ids are still the posting list, which later writes shift in place
+            return Arrays.copyOf(result.ids(), result.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int terms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] union(String prefix) {
+        Collection<PostingList> lists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (lists.size() == 1) {
+            PostingList list = lists.iterator().next();
+            return Arrays.copyOf(list.ids, list.size);
+        }
+        int total = 0;
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+        int[] all = new int[total];
+        int offset = 0;
+        for (PostingList list : lists) {
+            System.arraycopy(list.ids, 0, all, offset, list.size);
+            offset += list.size;
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (distinct == 0 || all[distinct - 1] != all[i]) {
+                all[distinct++] = all[i];
+            }
+        }
+        return distinct == all.length ? all : Arrays.copyOf(all, distinct);
+    }
+
+    private static int[] intersect(Ids shorter, Ids longer) {
+        int[] a = shorter.ids();
+        int[] b = longer.ids();
+        int[] result = new int[shorter.size()];
+        int count = 0;
+        if ((long) shorter.size() * GALLOP_RATIO < longer.size()) {
+            int from = 0;
+            for (int i = 0; i < shorter.size() && from < longer.size(); i++) {
+                int found = Arrays.binarySearch(b, from, longer.size(), a[i]);
+                if (found >= 0) {
+                    result[count++] = a[i];
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < shorter.size() && j < longer.size()) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    result[count++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * The first {@code size} entries of a sorted id array, read under the lock without copying.
+     */
+    private record Ids(int[] ids, int size) {
+    }
+
+    /**
+     * Sorted, growable array of document ids.
+     */
+    private static final class PostingList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int found = Arrays.binarySearch(ids, 0, size, id);
+                if (found >= 0) {
+                    return;
+                }
+                insertAt(-found - 1, id);
+            } else {
+                insertAt(size, id);
+            }
+        }
+
+        private void insertAt(int position, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            if (found < 0) {
+                return false;
+            }
+            System.arraycopy(ids, found + 1, ids, found, size - found - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package uk.co.gamma.address.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+
+/**
+ * Sorted index of canonical postcodes, counting the addresses of each, for prefix completion.
+ * A completion seeks to the prefix and walks forward, so its cost depends on the number of results
+ * rather than on the size of the index. Safe for concurrent reads and updates.
+ */
+public final class PostcodePrefixIndex {
+
+    private final ConcurrentSkipListMap<String, Long> postcodes = new ConcurrentSkipListMap<>();
+
+    /**
+     * add counts one more address with the postcode.
+     *
+     * @param postcodeKey a postcode normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     */
+    public void add(String postcodeKey) {
+        add(postcodeKey, 1);
+    }
+
+    /**
+     * add counts more addresses with the postcode.
+     *
+     * @param postcodeKey a normalized postcode.
+     * @param addresses   the number of addresses to add.
+     */
+    public void add(String postcodeKey, long addresses) {
+        if (postcodeKey != null && !postcodeKey.isEmpty() && addresses > 0) {
+            postcodes.merge(postcodeKey, addresses, Long::sum);
+        }
+    }
+
+    /**
+     * remove counts one address less with the postcode, dropping the postcode with its last address.
+     *
+     * @param postcodeKey a normalized postcode.
+     */
+    public void remove(String postcodeKey) {
+        if (postcodeKey != null) {
+            postcodes.computeIfPresent(postcodeKey, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * complete lists the first postcodes, in alphabetical order, that start with the prefix.
+     *
+     * @param prefix  a normalized postcode prefix.
+     * @param limit   maximum number of postcodes returned.
+     * @param exclude postcodes to leave out.
+     * @return List of {@link PostcodeSuggestion}.
+     */
+    public List<PostcodeSuggestion> complete(String prefix, int limit, Predicate<String> exclude) {
+        List<PostcodeSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+        NavigableMap<String, Long> candidates = postcodes.tailMap(prefix, true);
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            if (suggestions.size() >= limit || !candidate.getKey().startsWith(prefix)) {
+                break;
+            }
+            if (!exclude.test(candidate.getKey())) {
+                suggestions.add(new PostcodeSuggestion(candidate.getKey(), candidate.getValue()));
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return postcodes.size();
+    }
+}
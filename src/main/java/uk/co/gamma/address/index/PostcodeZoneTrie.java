@@ -0,0 +1,70 @@
+package uk.co.gamma.address.index;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trie keyed on postcode parts (area, district, sector, unit) as returned by
+ * {@link uk.co.gamma.address.model.Postcodes#hierarchy(String)}.
+ * A postcode matches if any of its prefixes was added, so a lookup walks at most four nodes
+ * however many prefixes the trie holds. Not thread safe while being built.
+ */
+public final class PostcodeZoneTrie {
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * add marks a postcode prefix as matching.
+     *
+     * @param parts the prefix parts, from the widest to the narrowest.
+     */
+    public void add(List<String> parts) {
+        if (parts.isEmpty()) {
+            return;
+        }
+        Node node = root;
+        for (String part : parts) {
+            node = node.children.computeIfAbsent(part, p -> new Node());
+        }
+        if (!node.terminal) {
+            node.terminal = true;
+            size++;
+        }
+    }
+
+    /**
+     * matches checks whether the postcode, or any of its prefixes, was added.
+     *
+     * @param parts the postcode parts, from the widest to the narrowest.
+     * @return true if a matching prefix was added.
+     */
+    public boolean matches(List<String> parts) {
+        Node node = root;
+        for (String part : parts) {
+            node = node.children.get(part);
+            if (node == null) {
+                return false;
+            }
+            if (node.terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>(4);
+        private boolean terminal;
+    }
+}
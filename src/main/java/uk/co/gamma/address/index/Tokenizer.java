@@ -0,0 +1,41 @@
+package uk.co.gamma.address.index;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Tokenizer splits free text into lower case terms made of letters and digits.
+ * Every other character separates terms, so "King's House" gives [king, s, house].
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * tokenize adds the terms of each text to a set, in order of first appearance.
+     *
+     * @param texts the texts to split, nulls are skipped.
+     * @return the distinct terms.
+     */
+    public static Set<String> tokenize(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+                if (termChar && start < 0) {
+                    start = i;
+                } else if (!termChar && start >= 0) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                    start = -1;
+                }
+            }
+        }
+        return terms;
+    }
+}
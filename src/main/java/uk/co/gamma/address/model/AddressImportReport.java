@@ -0,0 +1,42 @@
+package uk.co.gamma.address.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * Summary of a CSV import.
+ */
+public record AddressImportReport(
+
+        @Schema(description = "Data lines read, not counting the header and blank lines", example = "100000")
+        long lines,
+
+        @Schema(description = "Addresses created", example = "99998")
+        long imported,
+
+        @Schema(description = "Lines that could not be parsed or failed validation", example = "1")
+        long invalid,
+
+        @Schema(description = "Valid lines that could not be stored", example = "1")
+        long failed,
+
+        @Schema(description = "Time taken by the import in milliseconds", example = "2500")
+        long elapsedMillis,
+
+        @Schema(description = "Lines read per second", example = "40000")
+        long linesPerSecond,
+
+        @Schema(description = "Rejected lines, up to the configured limit")
+        List<LineError> errors
+) {
+
+    public record LineError(
+
+            @Schema(description = "Line number in the file, the header being line 1", example = "42")
+            long line,
+
+            @Schema(description = "Why the line was rejected")
+            List<String> errors
+    ) {
+    }
+}
@@ -0,0 +1,12 @@
+package uk.co.gamma.address.model;
+
+import java.util.List;
+
+/**
+ * One page of addresses ordered by id.
+ *
+ * @param addresses   the addresses in the page.
+ * @param nextAfterId id to continue after for the next page, null if this is the last page.
+ */
+public record AddressPage(List<Address> addresses, Integer nextAfterId) {
+}
@@ -0,0 +1,43 @@
+package uk.co.gamma.address.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * Outcome of one address of a bulk create request.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record BulkAddressResult(
+
+        @Schema(description = "Position of the address in the request", example = "0")
+        int index,
+
+        @Schema(description = "Outcome for the address")
+        Status status,
+
+        @Schema(description = "The created address, with its id")
+        Address address,
+
+        @Schema(description = "Why the address was not created")
+        List<String> errors
+) {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    public static BulkAddressResult created(int index, Address address) {
+        return new BulkAddressResult(index, Status.CREATED, address, List.of());
+    }
+
+    public static BulkAddressResult invalid(int index, List<String> errors) {
+        return new BulkAddressResult(index, Status.INVALID, null, errors);
+    }
+
+    public static BulkAddressResult failed(int index, String error) {
+        return new BulkAddressResult(index, Status.FAILED, null, List.of(error));
+    }
+}
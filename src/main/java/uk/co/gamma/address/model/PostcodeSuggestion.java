@@ -0,0 +1,13 @@
+package uk.co.gamma.address.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record PostcodeSuggestion(
+
+        @Schema(description = "Postcode in its canonical form", example = "RG14 5BY")
+        String postcode,
+
+        @Schema(description = "Number of addresses with the postcode", example = "3")
+        long addresses
+) {
+}
@@ -0,0 +1,86 @@
+package uk.co.gamma.address.model;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Postcodes holds helpers for comparing postcodes independently of case and spacing.
+ */
+public final class Postcodes {
+
+    private static final Pattern AREA = Pattern.compile("([A-Z]{1,2})");
+    private static final Pattern OUTWARD = Pattern.compile("([A-Z]{1,2})([0-9][0-9A-Z]?)");
+    private static final Pattern INWARD = Pattern.compile("([0-9])([A-Z]{2})?");
+    private static final Pattern UNSPACED = Pattern.compile("([A-Z]{1,2}[0-9][0-9A-Z]?)([0-9][A-Z]{2})");
+
+    private Postcodes() {
+    }
+
+    /**
+     * normalize converts a postcode to its canonical key: trimmed, upper case, with single spaces.
+     *
+     * @param postcode the postcode as entered, may be null.
+     * @return the canonical key, or null if the postcode was null.
+     */
+    public static String normalize(String postcode) {
+        if (postcode == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(postcode.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < postcode.length(); i++) {
+            char c = postcode.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(Character.toUpperCase(c));
+        }
+        return key.toString();
+    }
+
+    /**
+     * hierarchy splits a normalized postcode, or a prefix of one, into its area, district, sector and unit parts.
+     * For example "RG14 7DH" gives [RG, 14, 7, DH] and the district "RG14" gives [RG, 14].
+     *
+     * @param key a key returned by {@link #normalize(String)}.
+     * @return the parts from the widest to the narrowest, empty if the key is not shaped like a postcode.
+     */
+    public static List<String> hierarchy(String key) {
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+        int space = key.indexOf(' ');
+        String outward = space < 0 ? key : key.substring(0, space);
+        String inward = space < 0 ? null : key.substring(space + 1);
+        if (inward == null) {
+            Matcher unspaced = UNSPACED.matcher(outward);
+            if (unspaced.matches()) {
+                outward = unspaced.group(1);
+                inward = unspaced.group(2);
+            } else if (AREA.matcher(outward).matches()) {
+                return List.of(outward);
+            }
+        }
+        Matcher outwardParts = OUTWARD.matcher(outward);
+        if (!outwardParts.matches()) {
+            return List.of();
+        }
+        if (inward == null) {
+            return List.of(outwardParts.group(1), outwardParts.group(2));
+        }
+        Matcher inwardParts = INWARD.matcher(inward);
+        if (!inwardParts.matches()) {
+            return List.of();
+        }
+        if (inwardParts.group(2) == null) {
+            return List.of(outwardParts.group(1), outwardParts.group(2), inwardParts.group(1));
+        }
+        return List.of(outwardParts.group(1), outwardParts.group(2), inwardParts.group(1), inwardParts.group(2));
+    }
+}
@@ -1,11 +1,22 @@
 package uk.co.gamma.address.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * A Zone represents a geographical area. Contains a postcode field.
  * The postcode is used to identify a zone. Used by the blacklistService.
+ * The postcode may be a full postcode ("RG14 7DH") or a prefix covering a sector ("RG14 7"),
+ * a district ("RG14") or a whole area ("RG"), see {@link Level}.
  */
 public class Zone {
 
+    /**
+     * How much of the postcode hierarchy a zone covers.
+     */
+    public enum Level {
+        AREA, DISTRICT, SECTOR, POSTCODE
+    }
+
     private String postCode;
 
     public Zone(String postCode) {
@@ -34,5 +45,19 @@ public class Zone {
         this.postCode = postCode;
     }
 
+    /**
+     * getLevel derives the {@link Level} from the shape of the postcode.
+     * Postcodes that are not shaped like a UK postcode only ever match exactly and are reported as {@link Level#POSTCODE}.
 
+     * @return the {@link Level} of the zone.
+     */
+    @JsonIgnore
+    public Level getLevel() {
+        return switch (Postcodes.hierarchy(Postcodes.normalize(postCode)).size()) {
+            case 1 -> Level.AREA;
+            case 2 -> Level.DISTRICT;
+            case 3 -> Level.SECTOR;
+            default -> Level.POSTCODE;
+        };
+    }
 }
@@ -1,18 +1,31 @@
 package uk.co.gamma.address.model.db.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import uk.co.gamma.address.model.Postcodes;
 
 @Entity(name = "Address")
 @Table(name = "address")
+// held in the second-level cache, see EntityCacheConfiguration; read-write keeps readers off entries being updated
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AddressEntity {
 
+    // ids come from a sequence, 50 at a time through Hibernate's pooled optimizer, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_seq")
+    @SequenceGenerator(name = "address_seq", sequenceName = "address_seq", allocationSize = 50)
     private Integer id;
     @Column(nullable = false)
     private String building;
@@ -22,20 +35,30 @@ public class AddressEntity {
     private String town;
     @Column(nullable = false)
     private String postcode;
+    // canonical form of the postcode, indexed for lookups, see Postcodes#normalize
+    @Column(name = "postcode_key", nullable = false)
+    private String postcodeKey;
+    // whether the postcode is in a blacklisted zone, maintained by BlacklistFlags
+    @Column(nullable = false)
+    private boolean blacklisted;
+    // bumped by every update, including the single statement updates of AddressRepository#updateAddress
+    @Version
+    @Column(nullable = false)
+    private long version;
 
     public AddressEntity(Integer id, String building, String street, String town, String postcode) {
         this.id = id;
         this.building = building;
         this.street = street;
         this.town = town;
-        this.postcode = postcode;
+        setPostcode(postcode);
     }
 
     public AddressEntity(String building, String street, String town, String postcode) {
         this.building = building;
         this.street = street;
         this.town = town;
-        this.postcode = postcode;
+        setPostcode(postcode);
     }
 
     public AddressEntity() {
@@ -80,5 +103,28 @@ public class AddressEntity {
 
     public void setPostcode(String postcode) {
         this.postcode = postcode;
+        this.postcodeKey = Postcodes.normalize(postcode);
+    }
+
+    public String getPostcodeKey() {
+        return postcodeKey;
+    }
+
+    public boolean isBlacklisted() {
+        return blacklisted;
+    }
+
+    public void setBlacklisted(boolean blacklisted) {
+        this.blacklisted = blacklisted;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncPostcodeKey() {
+        postcodeKey = Postcodes.normalize(postcode);
     }
 }
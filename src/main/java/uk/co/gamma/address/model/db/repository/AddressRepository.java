@@ -1,12 +1,179 @@
 package uk.co.gamma.address.model.db.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import uk.co.gamma.address.model.Address;
 import uk.co.gamma.address.model.db.entity.AddressEntity;
 
 public interface AddressRepository extends JpaRepository<AddressEntity, Integer> {
 
+    // read queries project straight into the Address record: no managed entities, no dirty checking snapshots, no mapping
+    String SELECT_ADDRESS = "select new uk.co.gamma.address.model.Address(a.id, a.building, a.street, a.town, a.postcode) from Address a";
+
     List<AddressEntity> findByPostcodeIgnoreCase(String postcode);
 
+    /**
+     * findAddresses reads every address straight into {@link Address} records, without managed entities.
+     *
+     * @return List of {@link Address}.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS)
+    List<Address> findAddresses();
+
+    /**
+     * findAddressesByIdIn reads the addresses with the given ids straight into {@link Address} records.
+     *
+     * @param ids the ids of the addresses.
+     * @return List of {@link Address}, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS + " where a.id in :ids")
+    List<Address> findAddressesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * findAddressesByPostcodeKey finds addresses by their indexed canonical postcode. The result is held in the query
+     * cache until the address table is next written.
+     *
+     * @param postcodeKey the postcode normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     * @return List of {@link Address}.
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_ADDRESS + " where a.postcodeKey = :postcodeKey")
+    List<Address> findAddressesByPostcodeKey(@Param("postcodeKey") String postcodeKey);
+
+    /**
+     * findAddressesByPostcodeKeyIn finds addresses matching any of the canonical postcodes with a single {@code IN} query.
+     *
+     * @param postcodeKeys postcodes normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     * @return List of {@link Address}.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS + " where a.postcodeKey in :postcodeKeys")
+    List<Address> findAddressesByPostcodeKeyIn(@Param("postcodeKeys") Collection<String> postcodeKeys);
+
+    /**
+     * findAddressesAfter reads one page of addresses in id order, seeking on the primary key.
+     *
+     * @param id       only addresses with a greater id are returned.
+     * @param pageable the page size.
+     * @return List of {@link Address} in id order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS + " where a.id > :id order by a.id")
+    List<Address> findAddressesAfter(@Param("id") Integer id, Pageable pageable);
+
+    /**
+     * findUnblacklistedAddresses finds the addresses outside the blacklisted zones, as last flagged.
+     *
+     * @return List of {@link Address}.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS + " where a.blacklisted = false")
+    List<Address> findUnblacklistedAddresses();
+
+    /**
+     * findUnblacklistedAddressesAfter reads one page of the addresses outside the blacklisted zones, as last flagged,
+     * seeking on the {@code (blacklisted, id)} index.
+     *
+     * @param id       only addresses with a greater id are returned.
+     * @param pageable the page size.
+     * @return List of {@link Address} in id order.
+     */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ADDRESS + " where a.blacklisted = false and a.id > :id order by a.id")
+    List<Address> findUnblacklistedAddressesAfter(@Param("id") Integer id, Pageable pageable);
+
+    /**
+     * streamAddresses streams every address in id order, fetching rows from the database in batches.
+     * Must be consumed, and closed, inside a transaction.
+     *
+     * @return Stream of {@link Address}.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_ADDRESS + " order by a.id")
+    Stream<Address> streamAddresses();
+
+    /**
+     * streamPostcodeKeys streams every distinct canonical postcode. Must be consumed, and closed, inside a transaction.
+     *
+     * @return Stream of normalized postcodes.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select distinct a.postcodeKey from Address a")
+    Stream<String> streamPostcodeKeys();
+
+    /**
+     * countPostcodeKeys counts the distinct canonical postcodes.
+     *
+     * @return number of distinct normalized postcodes.
+     */
+    @Query("select count(distinct a.postcodeKey) from Address a")
+    long countPostcodeKeys();
+
+    /**
+     * clearBlacklisted unflags every flagged address.
+     *
+     * @return the number of addresses unflagged.
+     */
+    @Modifying
+    @Query("update Address a set a.blacklisted = false where a.blacklisted = true")
+    int clearBlacklisted();
+
+    /**
+     * markBlacklisted flags the addresses of the given canonical postcodes.
+     *
+     * @param postcodeKeys postcodes normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     * @return the number of addresses flagged.
+     */
+    @Modifying
+    @Query("update Address a set a.blacklisted = true where a.postcodeKey in :postcodeKeys")
+    int markBlacklisted(@Param("postcodeKeys") Collection<String> postcodeKeys);
+
+    /**
+     * updateAddress overwrites an address with a single {@code UPDATE ... WHERE id = ?}, without loading it first,
+     * and bumps its version.
+     *
+     * @param id          the id of the address.
+     * @param building    the new building.
+     * @param street      the new street.
+     * @param town        the new town.
+     * @param postcode    the new postcode, as written.
+     * @param postcodeKey the new postcode normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     * @param blacklisted whether the new postcode is blacklisted, see {@link #markBlacklisted(Collection)}.
+     * @return the number of addresses updated, 0 if there is none with the id.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Address a set a.building = :building, a.street = :street, a.town = :town, a.postcode = :postcode,"
+            + " a.postcodeKey = :postcodeKey, a.blacklisted = :blacklisted, a.version = a.version + 1 where a.id = :id")
+    int updateAddress(@Param("id") Integer id, @Param("building") String building, @Param("street") String street, @Param("town") String town,
+                      @Param("postcode") String postcode, @Param("postcodeKey") String postcodeKey, @Param("blacklisted") boolean blacklisted);
+
+    /**
+     * deleteAddress deletes an address with a single {@code DELETE ... WHERE id = ?}, without loading it first.
+     *
+     * @param id the id of the address.
+     * @return the number of addresses deleted, 0 if there is none with the id.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Address a where a.id = :id")
+    int deleteAddress(@Param("id") Integer id);
+
     void delete(AddressEntity address);
 }
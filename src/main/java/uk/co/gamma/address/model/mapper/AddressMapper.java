@@ -2,12 +2,14 @@ package uk.co.gamma.address.model.mapper;
 
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import uk.co.gamma.address.model.Address;
 import uk.co.gamma.address.model.db.entity.AddressEntity;
 
 @Mapper(componentModel = "spring")
 public interface AddressMapper {
 
+    @Mapping(target = "blacklisted", ignore = true)
     AddressEntity modelToEntity(Address address);
 
     Address entityToModel(AddressEntity address);
@@ -0,0 +1,139 @@
+package uk.co.gamma.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.BulkAddressResult;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+import uk.co.gamma.address.model.mapper.AddressMapper;
+
+/**
+ * Address bulk service creates many addresses in one call. Each address is validated on its own, valid addresses are
+ * written in chunks, each chunk in its own transaction, and the inserts go to the database as JDBC batches.
+ * A chunk that fails is rolled back and reported without affecting the chunks before or after it.
+ */
+@Component
+public class AddressBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressBulkService.class);
+    static final String STORE_FAILED = "Address could not be stored, the chunk it was part of was rolled back";
+
+    private final AddressMapper addressMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate chunkTransaction;
+    private final Validator validator;
+    private final BlacklistFlags blacklistFlags;
+    private final List<AddressChangeListener> addressChangeListeners;
+    private final int batchSize;
+    private final int chunkSize;
+
+    @Autowired
+    AddressBulkService(AddressMapper addressMapper, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                       Validator validator, AddressProperties addressProperties, BlacklistFlags blacklistFlags,
+                       List<AddressChangeListener> addressChangeListeners) {
+        this.addressMapper = addressMapper;
+        this.entityManager = entityManager;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.blacklistFlags = blacklistFlags;
+        this.addressChangeListeners = addressChangeListeners;
+        this.batchSize = addressProperties.getBulk().getBatchSize();
+        this.chunkSize = Math.max(1, addressProperties.getBulk().getChunkSize());
+    }
+
+    /**
+     * createAll creates the valid addresses.
+     *
+     * @param addresses {@link Address} list to create, without ids.
+     * @return one {@link BulkAddressResult} per address, in request order.
+     */
+    public List<BulkAddressResult> createAll(List<Address> addresses) {
+        BulkAddressResult[] results = new BulkAddressResult[addresses.size()];
+        List<Integer> chunk = new ArrayList<>(Math.min(chunkSize, addresses.size()));
+        for (int i = 0; i < addresses.size(); i++) {
+            List<String> errors = validate(addresses.get(i));
+            if (!errors.isEmpty()) {
+                results[i] = BulkAddressResult.invalid(i, errors);
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                writeChunk(addresses, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(addresses, chunk, results);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * validate checks one address against the same constraints as a single create.
+     *
+     * @param address {@link Address} to check, may be null.
+     * @return the validation errors, empty if the address is valid.
+     */
+    List<String> validate(Address address) {
+        if (address == null) {
+            return List.of("Address must not be null");
+        }
+        return validator.validate(address).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * store writes valid addresses in one transaction, sending the inserts as JDBC batches.
+     *
+     * @param addresses {@link Address} list already validated.
+     * @return the created addresses with their ids, in the same order.
+     */
+    List<Address> store(List<Address> addresses) {
+        List<Address> created = blacklistFlags.writing(() -> chunkTransaction.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<AddressEntity> entities = new ArrayList<>(addresses.size());
+            for (Address address : addresses) {
+                AddressEntity entity = addressMapper.modelToEntity(address);
+                entity.setBlacklisted(blacklistFlags.isBlacklisted(entity.getPostcodeKey()));
+                entityManager.persist(entity);
+                entities.add(entity);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return addressMapper.entityToModel(entities);
+        }));
+        for (Address address : created) {
+            addressChangeListeners.forEach(listener -> listener.created(address));
+        }
+        return created;
+    }
+
+    private void writeChunk(List<Address> addresses, List<Integer> chunk, BulkAddressResult[] results) {
+        try {
+            List<Address> created = store(chunk.stream().map(addresses::get).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                results[chunk.get(i)] = BulkAddressResult.created(chunk.get(i), created.get(i));
+            }
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            logger.warn("Bulk chunk of {} addresses starting at index {} failed", chunk.size(), chunk.get(0), e);
+            for (int index : chunk) {
+                results[index] = BulkAddressResult.failed(index, STORE_FAILED);
+            }
+        }
+    }
+}
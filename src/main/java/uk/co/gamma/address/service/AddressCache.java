@@ -0,0 +1,93 @@
+package uk.co.gamma.address.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Address cache is a bounded read-through cache of addresses by id, in front of the database.
+ * Missing ids are cached too, for a shorter time, so repeated lookups of an unknown id do not reach the database.
+ * As an {@link AddressChangeListener} it writes updates through and drops created and deleted ids, so a read after
+ * a write never sees the old value. Hits, misses and evictions are published as the {@code cache.*} metrics
+ * tagged {@code cache=addresses}.
+ */
+@Component
+public class AddressCache implements AddressChangeListener {
+
+    static final String CACHE_NAME = "addresses";
+
+    private final Cache<Integer, Optional<Address>> addresses;
+
+    @Autowired
+    AddressCache(AddressProperties addressProperties, MeterRegistry meterRegistry) {
+        this(addressProperties, meterRegistry, Ticker.systemTicker());
+    }
+
+    AddressCache(AddressProperties addressProperties, MeterRegistry meterRegistry, Ticker ticker) {
+        AddressProperties.Cache cache = addressProperties.getCache();
+        long ttlNanos = cache.getTtl().toNanos();
+        long negativeTtlNanos = cache.getNegativeTtl().toNanos();
+        this.addresses = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfter(new Expiry<Integer, Optional<Address>>() {
+                    @Override
+                    public long expireAfterCreate(Integer id, Optional<Address> address, long currentTime) {
+                        return address.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer id, Optional<Address> address, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, address, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer id, Optional<Address> address, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .<Integer, Optional<Address>>build(), CACHE_NAME);
+    }
+
+    /**
+     * get returns the cached address, loading it on a miss. Concurrent misses for the same id share one load.
+     *
+     * @param id     the address id.
+     * @param loader reads the address from the database.
+     * @return {@link Address} Optional, empty if there is no address with the id.
+     */
+    public Optional<Address> get(Integer id, Supplier<Optional<Address>> loader) {
+        return addresses.get(id, key -> loader.get());
+    }
+
+    @Override
+    public void created(Address address) {
+        // not cached straight away, a bulk load would otherwise push the hot ids out
+        addresses.invalidate(address.id());
+    }
+
+    @Override
+    public void updated(Address before, Address after) {
+        addresses.put(after.id(), Optional.of(after));
+    }
+
+    @Override
+    public void deleted(Address address) {
+        addresses.invalidate(address.id());
+    }
+
+    long size() {
+        addresses.cleanUp();
+        return addresses.estimatedSize();
+    }
+}
@@ -0,0 +1,33 @@
+package uk.co.gamma.address.service;
+
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Address change listener is told about every address written through {@link AddressService} or
+ * {@link AddressBulkService}, once the change has been committed. It lets in-memory views of the address table
+ * follow the writes without reloading it.
+ */
+public interface AddressChangeListener {
+
+    /**
+     * created is called for a new address.
+     *
+     * @param address the created {@link Address}, with its id.
+     */
+    void created(Address address);
+
+    /**
+     * updated is called when an address has been amended.
+     *
+     * @param before the {@link Address} as it was.
+     * @param after  the {@link Address} as it is now.
+     */
+    void updated(Address before, Address after);
+
+    /**
+     * deleted is called once an address has been removed.
+     *
+     * @param address the removed {@link Address}.
+     */
+    void deleted(Address address);
+}
@@ -0,0 +1,41 @@
+package uk.co.gamma.address.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Address dataset version is a counter bumped by every committed write to the address table, so that anything
+ * derived from the whole table can tell whether it is still current without reading it.
+ * The counter starts again from zero when the application restarts.
+ */
+@Component
+public class AddressDatasetVersion implements AddressChangeListener {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * current version of the address table. Read it before reading the table, so that a write committed meanwhile
+     * makes whatever is derived from the read look stale rather than current.
+     *
+     * @return the number of writes seen since startup.
+     */
+    public long current() {
+        return version.get();
+    }
+
+    @Override
+    public void created(Address address) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void updated(Address before, Address after) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void deleted(Address address) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,88 @@
+package uk.co.gamma.address.service;
+
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Address etags derives entity tags for address responses. Lists are tagged from the {@link AddressDatasetVersion}
+ * and the {@link BlacklistSnapshot} version, without reading the database, so a client holding a current tag is
+ * answered without reading the addresses. A single address is tagged from the {@link Address} already read for the
+ * response, so its tag neither costs a read of its own nor depends on the blacklist.
+ *
+ * <p>List tags start with a value picked at startup, because the dataset and blacklist versions start again from
+ * zero on every start.
+ */
+@Component
+public class AddressEtags {
+
+    private final AddressDatasetVersion addressDatasetVersion;
+    private final PostCodeBlacklistService postCodeBlacklistService;
+    private final String epoch;
+
+    @Autowired
+    AddressEtags(AddressDatasetVersion addressDatasetVersion, PostCodeBlacklistService postCodeBlacklistService) {
+        this(addressDatasetVersion, postCodeBlacklistService, Long.toString(System.currentTimeMillis(), Character.MAX_RADIX));
+    }
+
+    AddressEtags(AddressDatasetVersion addressDatasetVersion, PostCodeBlacklistService postCodeBlacklistService, String epoch) {
+        this.addressDatasetVersion = addressDatasetVersion;
+        this.postCodeBlacklistService = postCodeBlacklistService;
+        this.epoch = epoch;
+    }
+
+    /**
+     * forListing tags a list of addresses, the full listing or the addresses of one postcode.
+     * Call it before reading the addresses, so that a write committed meanwhile yields a tag that is already stale.
+     *
+     * @param includeBlacklisted whether blacklisted addresses are included, if not the blacklist version is part of the tag.
+     * @return a strong entity tag, quoted.
+     */
+    public String forListing(boolean includeBlacklisted) {
+        long dataVersion = addressDatasetVersion.current();
+        if (includeBlacklisted) {
+            return quote(epoch + "-" + dataVersion + "-all");
+        }
+        return quote(epoch + "-" + dataVersion + "-" + postCodeBlacklistService.snapshotOrThrow().version());
+    }
+
+    /**
+     * forAddress tags a single address from its fields, so that writes to other addresses leave the tag unchanged
+     * and the same address gets the same tag across restarts. {@link Address} carries no row version, so the fields
+     * it is served with stand in for it.
+     *
+     * @param address the {@link Address} read for the response.
+     * @return a strong entity tag, quoted.
+     */
+    public String forAddress(Address address) {
+        String fields = String.join("\u0000", String.valueOf(address.id()), address.building(), address.street(), address.town(),
+                address.postcode());
+        return quote(DigestUtils.md5DigestAsHex(fields.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * matches evaluates an If-None-Match header against the current tag, with the weak comparison RFC 7232 asks for.
+     *
+     * @param ifNoneMatch the header value, may be null.
+     * @param etag        the current tag.
+     * @return true if the client already holds the current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
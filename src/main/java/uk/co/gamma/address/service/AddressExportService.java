@@ -0,0 +1,82 @@
+package uk.co.gamma.address.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Address export service streams the whole address table as newline delimited JSON, one {@link Address} per line.
+ * Rows are read through a database cursor as {@link Address} projections, which the persistence context does not
+ * keep, so memory use does not grow with the table.
+ */
+@Component
+public class AddressExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressExportService.class);
+
+    private final AddressRepository addressRepository;
+    private final PostCodeBlacklistService postCodeBlacklistService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter addressWriter;
+
+    @Autowired
+    AddressExportService(AddressRepository addressRepository, PostCodeBlacklistService postCodeBlacklistService,
+                         PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.addressRepository = addressRepository;
+        this.postCodeBlacklistService = postCodeBlacklistService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.addressWriter = objectMapper.writerFor(Address.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * export prepares the export. The blacklist snapshot is read straight away, so that a failure to read it
+     * is reported before anything has been written, and the same snapshot is used for every row.
+     *
+     * @param includeBlacklisted if false blacklisted addresses are not exported.
+     * @return {@link StreamingResponseBody} writing the addresses.
+     */
+    public StreamingResponseBody export(boolean includeBlacklisted) {
+        BlacklistMatcher matcher = includeBlacklisted ? null : postCodeBlacklistService.snapshotOrThrow().matcher();
+        return out -> writeTo(out, matcher);
+    }
+
+    void writeTo(OutputStream out, BlacklistMatcher matcher) throws IOException {
+        try (JsonGenerator generator = addressWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Long written = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<Address> addresses = addressRepository.streamAddresses()) {
+                    for (Address address : (Iterable<Address>) addresses::iterator) {
+                        if (matcher == null || !matcher.isBlacklisted(address.postcode())) {
+                            addressWriter.writeValue(generator, address);
+                            generator.writeRaw('\n');
+                            count++;
+                        }
+                    }
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+                return count;
+            });
+            logger.info("Exported {} addresses", written);
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+}
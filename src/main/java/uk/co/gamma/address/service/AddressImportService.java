@@ -0,0 +1,253 @@
+package uk.co.gamma.address.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.exception.InvalidCsvException;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.AddressImportReport;
+import uk.co.gamma.address.model.AddressImportReport.LineError;
+
+/**
+ * Address import service loads addresses from a CSV stream in the {@code building,street,town,postcode} layout of
+ * {@code db/data/addresses.csv}.
+ *
+ * <p>The stream is read in chunks of lines which are parsed and validated in parallel. The importing thread writes the
+ * parsed chunks in file order through {@link AddressBulkService}. When {@code maxPendingChunks} chunks are waiting,
+ * it writes the oldest one before reading further, so at most that many chunks are held in memory whatever the size
+ * of the file.
+ */
+@Component
+public class AddressImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressImportService.class);
+    static final String HEADER = "building,street,town,postcode";
+    private static final int FIELDS = 4;
+
+    private final AddressBulkService addressBulkService;
+    private final Executor addressImportExecutor;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final int maxReportedErrors;
+
+    /**
+     * Constructor.
+     *
+     * @param addressBulkService    {@link AddressBulkService} validating and storing the addresses.
+     * @param addressImportExecutor parses the chunks.
+     * @param addressProperties     {@link AddressProperties}
+     */
+    @Autowired
+    AddressImportService(AddressBulkService addressBulkService, @Qualifier("addressImportExecutor") Executor addressImportExecutor,
+                         AddressProperties addressProperties) {
+        AddressProperties.CsvImport csvImport = addressProperties.getCsvImport();
+        this.addressBulkService = addressBulkService;
+        this.addressImportExecutor = addressImportExecutor;
+        this.chunkSize = Math.max(1, csvImport.getChunkSize());
+        this.maxPendingChunks = Math.max(1, csvImport.getMaxPendingChunks());
+        this.maxReportedErrors = csvImport.getMaxReportedErrors();
+    }
+
+    /**
+     * importCsv creates an address for every valid line of the CSV. Lines that cannot be parsed, fail validation or
+     * cannot be stored are skipped and reported. Quoted fields are supported, line breaks inside a field are not.
+     *
+     * @param csv the CSV, starting with the {@value #HEADER} header.
+     * @return {@link AddressImportReport}
+     * @throws IOException if the stream cannot be read.
+     */
+    public AddressImportReport importCsv(InputStream csv) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        Deque<CompletableFuture<ParsedChunk>> pending = new ArrayDeque<>(maxPendingChunks);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            readHeader(reader);
+            long lineNumber = 1;
+            long firstLine = 2;
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lines.isEmpty()) {
+                    firstLine = lineNumber;
+                }
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    submit(pending, firstLine, lines, progress);
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(pending, firstLine, lines, progress);
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll(), progress);
+            }
+        } finally {
+            pending.forEach(chunk -> chunk.cancel(true));
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        long linesPerSecond = elapsedNanos == 0 ? 0 : progress.lines * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        logger.info("Imported {} of {} lines in {} ms ({} lines/s), {} invalid, {} failed",
+                progress.imported, progress.lines, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), linesPerSecond, progress.invalid, progress.failed);
+        return new AddressImportReport(progress.lines, progress.imported, progress.invalid, progress.failed,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), linesPerSecond, List.copyOf(progress.errors));
+    }
+
+    private static void readHeader(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header != null && header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        if (header == null || !HEADER.equalsIgnoreCase(header.replace(" ", "").strip())) {
+            throw new InvalidCsvException("The CSV must start with the header %s".formatted(HEADER));
+        }
+    }
+
+    private void submit(Deque<CompletableFuture<ParsedChunk>> pending, long firstLine, List<String> lines, Progress progress) {
+        if (pending.size() >= maxPendingChunks) {
+            write(pending.poll(), progress);
+        }
+        pending.add(CompletableFuture.supplyAsync(() -> parse(firstLine, lines), addressImportExecutor));
+    }
+
+    private ParsedChunk parse(long firstLine, List<String> lines) {
+        ParsedChunk chunk = new ParsedChunk(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.lines++;
+            long lineNumber = firstLine + i;
+            List<String> fields = parseFields(line);
+            if (fields == null || fields.size() != FIELDS) {
+                chunk.errors.add(new LineError(lineNumber, List.of(fields == null
+                        ? "Unterminated quoted field"
+                        : "Expected %d fields but found %d".formatted(FIELDS, fields.size()))));
+                continue;
+            }
+            Address address = new Address(null, fields.get(0), fields.get(1), fields.get(2), fields.get(3));
+            List<String> errors = addressBulkService.validate(address);
+            if (errors.isEmpty()) {
+                chunk.addresses.add(address);
+                chunk.lineNumbers.add(lineNumber);
+            } else {
+                chunk.errors.add(new LineError(lineNumber, errors));
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * parseFields splits one CSV line. Fields may be quoted with double quotes, a doubled quote inside a quoted
+     * field standing for one quote. Unquoted fields are trimmed.
+     *
+     * @return the fields, or null if a quoted field is not terminated.
+     */
+    static List<String> parseFields(String line) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.toString().isBlank()) {
+                field.setLength(0);
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(wasQuoted ? field.toString() : field.toString().strip());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(wasQuoted ? field.toString() : field.toString().strip());
+        return fields;
+    }
+
+    private void write(CompletableFuture<ParsedChunk> pendingChunk, Progress progress) {
+        ParsedChunk chunk = pendingChunk.join();
+        progress.lines += chunk.lines;
+        progress.invalid += chunk.errors.size();
+        chunk.errors.forEach(progress::report);
+        if (chunk.addresses.isEmpty()) {
+            return;
+        }
+        try {
+            addressBulkService.store(chunk.addresses);
+            progress.imported += chunk.addresses.size();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            logger.warn("Import chunk of {} addresses starting at line {} failed", chunk.addresses.size(), chunk.lineNumbers.get(0), e);
+            progress.failed += chunk.addresses.size();
+            chunk.lineNumbers.forEach(lineNumber -> progress.report(new LineError(lineNumber, List.of(AddressBulkService.STORE_FAILED))));
+        }
+    }
+
+    /**
+     * Result of parsing one chunk, only touched by the parsing thread until it is handed to the writer.
+     */
+    private static final class ParsedChunk {
+
+        private final List<Address> addresses;
+        private final List<Long> lineNumbers;
+        private final List<LineError> errors = new ArrayList<>();
+        private long lines;
+
+        private ParsedChunk(int size) {
+            this.addresses = new ArrayList<>(size);
+            this.lineNumbers = new ArrayList<>(size);
+        }
+    }
+
+    /**
+     * Running totals, only touched by the importing thread.
+     */
+    private final class Progress {
+
+        private final List<LineError> errors = new ArrayList<>();
+        private long lines;
+        private long imported;
+        private long invalid;
+        private long failed;
+
+        private void report(LineError error) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package uk.co.gamma.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.index.InvertedIndex;
+import uk.co.gamma.address.index.Tokenizer;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Address search index keeps an {@link InvertedIndex} of the building, street, town and postcode terms of every address.
+ * It is loaded from the database once the application is ready and then follows the writes as an
+ * {@link AddressChangeListener}. Writes committed while it loads are replayed on the loaded index before it is
+ * swapped in, so none is lost.
+ */
+@Component
+public class AddressSearchIndex implements AddressChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressSearchIndex.class);
+    private static final int[] NONE = new int[0];
+
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile InvertedIndex index = new InvertedIndex();
+    // changes told while the index loads, guarded by this
+    private List<Consumer<InvertedIndex>> pending;
+
+    @Autowired
+    AddressSearchIndex(AddressRepository addressRepository, PlatformTransactionManager transactionManager) {
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * rebuild streams the address table into a new index and swaps it in. Adding and removing terms is idempotent,
+     * so writes are replayed whether or not the load had already read them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        InvertedIndex rebuilt = new InvertedIndex();
+        Long indexed;
+        try {
+            indexed = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<Address> addresses = addressRepository.streamAddresses()) {
+                    for (Address address : (Iterable<Address>) addresses::iterator) {
+                        rebuilt.add(address.id(), terms(address));
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException re) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw re;
+        }
+        synchronized (this) {
+            pending.forEach(change -> change.accept(rebuilt));
+            pending = null;
+            index = rebuilt;
+        }
+        logger.info("Address search index loaded with {} addresses and {} terms", indexed, rebuilt.terms());
+    }
+
+    /**
+     * search finds the addresses containing every term of the query. A word ending with {@code *} matches any term
+     * starting with it, so "kings ro*" finds "Kings Road West".
+     *
+     * @param query free text, terms separated by spaces.
+     * @return the matching address ids in ascending order. Empty if the query has no terms.
+     */
+    public int[] search(String query) {
+        if (query == null || query.isBlank()) {
+            return NONE;
+        }
+        List<String> terms = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        for (String word : query.strip().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> wordTerms = new ArrayList<>(Tokenizer.tokenize(prefix ? word.substring(0, word.length() - 1) : word));
+            if (prefix && !wordTerms.isEmpty()) {
+                prefixes.add(wordTerms.remove(wordTerms.size() - 1));
+            }
+            terms.addAll(wordTerms);
+        }
+        return index.search(terms, prefixes);
+    }
+
+    @Override
+    public void created(Address address) {
+        apply(current -> current.add(address.id(), terms(address)));
+    }
+
+    @Override
+    public void updated(Address before, Address after) {
+        apply(current -> {
+            current.remove(before.id(), terms(before));
+            current.add(after.id(), terms(after));
+        });
+    }
+
+    @Override
+    public void deleted(Address address) {
+        apply(current -> current.remove(address.id(), terms(address)));
+    }
+
+    // applied to the index in use and, during a rebuild, queued for the loaded one
+    private synchronized void apply(Consumer<InvertedIndex> change) {
+        change.accept(index);
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    private static Set<String> terms(Address address) {
+        return Tokenizer.tokenize(address.building(), address.street(), address.town(), address.postcode());
+    }
+}
@@ -1,16 +1,36 @@
 package uk.co.gamma.address.service;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.exception.AddressLookupTimeoutException;
 import uk.co.gamma.address.exception.AddressNotFoundException;
 import uk.co.gamma.address.exception.BlackListReadingException;
 import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.AddressPage;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.model.Postcodes;
 import uk.co.gamma.address.model.db.entity.AddressEntity;
 import uk.co.gamma.address.model.db.repository.AddressRepository;
 import uk.co.gamma.address.model.mapper.AddressMapper;
@@ -28,6 +48,17 @@ public class AddressService {
     private final AddressRepository addressRepository;
     private final AddressMapper addressMapper;
     private final PostCodeBlacklistService postCodeBlacklistService;
+    private final Executor addressLookupExecutor;
+    private final TransactionTemplate lookupTransaction;
+    private final PostcodeSuggestionIndex postcodeSuggestionIndex;
+    private final AddressSearchIndex addressSearchIndex;
+    private final AddressCache addressCache;
+    private final KnownPostcodeFilter knownPostcodeFilter;
+    private final BlacklistFlags blacklistFlags;
+    private final CompactAddressStore compactAddressStore;
+    private final List<AddressChangeListener> addressChangeListeners;
+    private final Duration lookupTimeout;
+    private final int inClauseSize;
 
     /**
      * Constructor.
@@ -35,65 +66,254 @@ public class AddressService {
      * @param addressRepository {@link AddressRepository}.
      * @param addressMapper     {@link AddressMapper}
      * @param postCodeBlacklistService
+     * @param addressLookupExecutor runs postcode lookups alongside the blacklist check.
+     * @param transactionManager bounds the statements of those lookups by the lookup timeout.
+     * @param addressProperties {@link AddressProperties}
+     * @param postcodeSuggestionIndex {@link PostcodeSuggestionIndex}
+     * @param addressSearchIndex {@link AddressSearchIndex}
+     * @param addressCache {@link AddressCache}
+     * @param knownPostcodeFilter {@link KnownPostcodeFilter}
+     * @param blacklistFlags {@link BlacklistFlags}
+     * @param compactAddressStore {@link CompactAddressStore}
+     * @param addressChangeListeners told about every write, including both indexes and the cache.
      */
     @Autowired
-    AddressService(AddressRepository addressRepository, AddressMapper addressMapper, PostCodeBlacklistService postCodeBlacklistService) {
+    AddressService(AddressRepository addressRepository, AddressMapper addressMapper, PostCodeBlacklistService postCodeBlacklistService,
+                   @Qualifier("addressLookupExecutor") Executor addressLookupExecutor, PlatformTransactionManager transactionManager,
+                   AddressProperties addressProperties,
+                   PostcodeSuggestionIndex postcodeSuggestionIndex, AddressSearchIndex addressSearchIndex, AddressCache addressCache,
+                   KnownPostcodeFilter knownPostcodeFilter, BlacklistFlags blacklistFlags, CompactAddressStore compactAddressStore,
+                   List<AddressChangeListener> addressChangeListeners) {
         this.addressRepository = addressRepository;
         this.addressMapper = addressMapper;
         this.postCodeBlacklistService = postCodeBlacklistService;
+        this.addressLookupExecutor = addressLookupExecutor;
+        this.postcodeSuggestionIndex = postcodeSuggestionIndex;
+        this.addressSearchIndex = addressSearchIndex;
+        this.addressCache = addressCache;
+        this.knownPostcodeFilter = knownPostcodeFilter;
+        this.blacklistFlags = blacklistFlags;
+        this.compactAddressStore = compactAddressStore;
+        this.addressChangeListeners = addressChangeListeners;
+        this.lookupTimeout = addressProperties.getLookup().getTimeout();
+        this.lookupTransaction = new TransactionTemplate(transactionManager);
+        this.lookupTransaction.setReadOnly(true);
+        // transaction timeouts are in whole seconds, and are applied as the JDBC query timeout of every statement
+        this.lookupTransaction.setTimeout((int) Math.max(1, (lookupTimeout.toMillis() + 999) / 1000));
+        this.inClauseSize = Math.max(1, addressProperties.getLookup().getInClauseSize());
     }
 
     /**
-     * getAll get all the addresses of the system.
+     * getAll get all the addresses of the system, from the {@link CompactAddressStore} once it is loaded.
+     * Otherwise blacklisted addresses are left out in SQL when the {@link BlacklistFlags} are current, and filtered
+     * in memory if not.
      *
      * @param includeBlacklisted if false blacklisted addresses are not returned.
      * @return List  {@link Address} . Empty if none found.
      */
 
     public List<Address> getAll(boolean includeBlacklisted) {
-        List<Address> addresses = addressMapper.entityToModel(addressRepository.findAll());
+        if (compactAddressStore.isReady()) {
+            return compactAddressStore.getAll(includeBlacklisted ? null : currentMatcher()::isBlacklisted);
+        }
+        if (!includeBlacklisted && blacklistFlags.isCurrent()) {
+            return addressRepository.findUnblacklistedAddresses();
+        }
+        List<Address> addresses = addressRepository.findAddresses();
         if (!includeBlacklisted && !addresses.isEmpty()) {
-            try {
-                return postCodeBlacklistService.filterBlacklistedAddresses(addresses);
-            } catch (InterruptedException ie) {
-                throw new BlackListReadingException(ERROR_OCCURRED_BLACKLISTED);
-            } catch (IOException ioe) {
-                throw new BlackListReadingException(ERROR_OCCURRED_BLACKLISTED_RETRY);
-            }
+            return filterBlacklisted(addresses);
         }
         return addresses;
     }
 
+    /**
+     * getPage get one page of addresses ordered by id, from the {@link CompactAddressStore} once it is loaded.
+     * Otherwise the primary key index is used to seek to {@code afterId}.
+     * Blacklisted addresses are left out in SQL when the {@link BlacklistFlags} are current. Otherwise they are
+     * filtered out page by page and further rows are read until the page is full.
+     *
+     * @param afterId only addresses with a greater id are returned, null to start from the beginning.
+     * @param limit maximum number of addresses in the page.
+     * @param includeBlacklisted if false blacklisted addresses are not returned.
+     * @return the {@link AddressPage}.
+     */
+    public AddressPage getPage(Integer afterId, int limit, boolean includeBlacklisted) {
+        int cursor = afterId == null ? 0 : afterId;
+        if (compactAddressStore.isReady()) {
+            List<Address> page = compactAddressStore.getPage(cursor, limit, includeBlacklisted ? null : currentMatcher()::isBlacklisted);
+            Integer next = page.size() < limit ? null : page.get(page.size() - 1).id();
+            return new AddressPage(page, next);
+        }
+        if (!includeBlacklisted && blacklistFlags.isCurrent()) {
+            List<Address> batch = addressRepository.findUnblacklistedAddressesAfter(cursor, PageRequest.of(0, limit));
+            Integer next = batch.size() < limit ? null : batch.get(batch.size() - 1).id();
+            return new AddressPage(batch, next);
+        }
+        List<Address> page = new ArrayList<>(limit);
+        while (page.size() < limit) {
+            int wanted = limit - page.size();
+            List<Address> batch = addressRepository.findAddressesAfter(cursor, PageRequest.of(0, wanted));
+            if (batch.isEmpty()) {
+                return new AddressPage(page, null);
+            }
+            cursor = batch.get(batch.size() - 1).id();
+            page.addAll(includeBlacklisted ? batch : filterBlacklisted(batch));
+            if (batch.size() < wanted) {
+                return new AddressPage(page, null);
+            }
+        }
+        return new AddressPage(page, cursor);
+    }
+
+    private BlacklistMatcher currentMatcher() {
+        return postCodeBlacklistService.snapshotOrThrow().matcher();
+    }
+
+    private List<Address> filterBlacklisted(List<Address> addresses) {
+        return currentMatcher().filter(addresses);
+    }
+
     /**
      * getByPostcode find Addresses by their postcode.
+     * Postcodes the {@link KnownPostcodeFilter} has never seen are answered straight away, without a query.
+     * When blacklisted addresses are excluded the database query runs concurrently with the blacklist check
+     * and is cancelled if the postcode turns out to be blacklisted or the lookup times out. Cancelling interrupts the
+     * lookup thread, and the query itself is bounded by the lookup timeout in the database.
 
      * @param postcode the postcode to search by.
      * @param includeBlacklisted if false and postcode blacklisted an empty list is returned.
      * @return List of  {@link Address}. Empty list if not found.
      */
     public List<Address> getByPostcode(String postcode, boolean includeBlacklisted) {
+        String postcodeKey = Postcodes.normalize(postcode);
+        if (!knownPostcodeFilter.mightBeKnown(postcodeKey)) {
+            return Collections.emptyList();
+        }
+        if (includeBlacklisted) {
+            return addressRepository.findAddressesByPostcodeKey(postcodeKey);
+        }
+
+        // unlike a CompletableFuture, a FutureTask interrupts the thread running it when cancelled
+        FutureTask<List<Address>> lookup =
+                new FutureTask<>(() -> lookupTransaction.execute(status -> addressRepository.findAddressesByPostcodeKey(postcodeKey)));
+        addressLookupExecutor.execute(lookup);
         try {
-            if (!includeBlacklisted && postCodeBlacklistService.isAddressBlackListed(postcode)) {
+            if (currentMatcher().isBlacklisted(postcode)) {
+                lookup.cancel(true);
                 return Collections.emptyList();
             }
+            return lookup.get(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS);
         } catch (InterruptedException ie) {
+            lookup.cancel(true);
+            Thread.currentThread().interrupt();
             throw new BlackListReadingException(ERROR_OCCURRED_BLACKLISTED);
-        } catch (IOException ioe) {
-            throw new BlackListReadingException(ERROR_OCCURRED_BLACKLISTED_RETRY);
+        } catch (TimeoutException te) {
+            lookup.cancel(true);
+            throw new AddressLookupTimeoutException(postcode);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ee.getCause());
+        } catch (RuntimeException re) {
+            lookup.cancel(true);
+            throw re;
         }
+    }
 
-        return addressMapper.entityToModel(addressRepository.findByPostcodeIgnoreCase(postcode));
+    /**
+     * getByPostcodes find the addresses of many postcodes at once. Postcodes unknown to the {@link KnownPostcodeFilter}
+     * are dropped first, the blacklist snapshot is read once for the whole batch and the remaining postcodes are looked up with {@code IN} queries of at most {@code address.lookup.in-clause-size}
+     * normalized postcodes each.
+     *
+     * @param postcodes the postcodes to search by, blank entries are ignored.
+     * @param includeBlacklisted if false blacklisted postcodes map to an empty list.
+     * @return map from each requested postcode, as given, to its {@link Address} list. Empty lists if not found.
+     */
+    public Map<String, List<Address>> getByPostcodes(List<String> postcodes, boolean includeBlacklisted) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String postcode : postcodes) {
+            if (postcode != null && !postcode.isBlank()) {
+                keys.putIfAbsent(postcode, Postcodes.normalize(postcode));
+            }
+        }
+        List<String> wanted = new ArrayList<>(new LinkedHashSet<>(keys.values()));
+        wanted.removeIf(key -> !knownPostcodeFilter.mightBeKnown(key));
+        if (!wanted.isEmpty() && !includeBlacklisted) {
+            wanted.removeIf(currentMatcher()::isBlacklisted);
+        }
+        Map<String, List<Address>> byKey = new HashMap<>();
+        for (int from = 0; from < wanted.size(); from += inClauseSize) {
+            List<String> chunk = wanted.subList(from, Math.min(from + inClauseSize, wanted.size()));
+            for (Address address : addressRepository.findAddressesByPostcodeKeyIn(chunk)) {
+                byKey.computeIfAbsent(Postcodes.normalize(address.postcode()), key -> new ArrayList<>()).add(address);
+            }
+        }
+
+        Map<String, List<Address>> result = new LinkedHashMap<>();
+        keys.forEach((postcode, key) -> result.put(postcode, byKey.getOrDefault(key, List.of())));
+        return result;
     }
 
     /**
-     * findById find an address by Id.
+     * suggest completes a postcode prefix from the in-memory {@link PostcodeSuggestionIndex}, without querying the database.
+     *
+     * @param prefix the start of a postcode.
+     * @param limit maximum number of postcodes returned.
+     * @param includeBlacklisted if false blacklisted postcodes are not suggested.
+     * @return List of {@link PostcodeSuggestion} in alphabetical order.
+     */
+    public List<PostcodeSuggestion> suggest(String prefix, int limit, boolean includeBlacklisted) {
+        return postcodeSuggestionIndex.suggest(prefix, limit, includeBlacklisted ? null : currentMatcher());
+    }
+
+    /**
+     * search finds addresses by the terms of their building, street, town and postcode using the in-memory
+     * {@link AddressSearchIndex}. Only the matching addresses are read from the database, in chunks of {@code limit} ids,
+     * until {@code limit} addresses are found after removing the blacklisted ones.
+     *
+     * @param query free text, every term must match and a term ending with {@code *} is a prefix.
+     * @param limit maximum number of addresses returned.
+     * @param includeBlacklisted if false blacklisted addresses are not returned.
+     * @return List of {@link Address} ordered by id. Empty if none found.
+     */
+    public List<Address> search(String query, int limit, boolean includeBlacklisted) {
+        int[] ids = addressSearchIndex.search(query);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        BlacklistMatcher matcher = includeBlacklisted ? null : currentMatcher();
+        List<Address> found = new ArrayList<>(Math.min(limit, ids.length));
+        for (int from = 0; from < ids.length && found.size() < limit; from += limit) {
+            List<Integer> chunk = new ArrayList<>(limit);
+            for (int i = from; i < Math.min(from + limit, ids.length); i++) {
+                chunk.add(ids[i]);
+            }
+            List<Address> addresses = new ArrayList<>(addressRepository.findAddressesByIdIn(chunk));
+            addresses.sort(Comparator.comparing(Address::id));
+            for (Address address : addresses) {
+                if (found.size() < limit && (matcher == null || !matcher.isBlacklisted(address.postcode()))) {
+                    found.add(address);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * findById find an address by Id, from the {@link CompactAddressStore} once it is loaded and read through the
+     * {@link AddressCache} otherwise. The cache loads the entity, so that a miss is served from the second-level
+     * entity cache when the address is held there.
 
      * @param id to search on.
 
      * @return  {@link Address} Optional.
      */
     public Optional<Address> getById(Integer id) {
-        return addressRepository.findById(id).map(addressMapper::entityToModel);
+        if (compactAddressStore.isReady()) {
+            return compactAddressStore.get(id);
+        }
+        return addressCache.get(id, () -> addressRepository.findById(id).map(addressMapper::entityToModel));
     }
 
     /**
@@ -105,11 +325,19 @@ public class AddressService {
      */
     public Address create(Address address) {
         logger.info("Adding new address: {}", address);
-        return save(addressMapper.modelToEntity(address));
+        AddressEntity addressEntity = addressMapper.modelToEntity(address);
+        Address created = blacklistFlags.writing(() -> {
+            addressEntity.setBlacklisted(blacklistFlags.isBlacklisted(addressEntity.getPostcodeKey()));
+            return save(addressEntity);
+        });
+        addressChangeListeners.forEach(listener -> listener.created(created));
+        return created;
     }
 
     /**
-     * update an Address.
+     * update an Address with a single UPDATE statement, and a missing id is reported from its row count. The previous
+     * value, which the change listeners are told, is read through {@link #getById(Integer)}, from the
+     * {@link CompactAddressStore} or the {@link AddressCache}, so it only costs a query when neither holds the id.
 
      * @param id of Address
 
@@ -118,28 +346,33 @@ public class AddressService {
      * @return {@link Address}
      */
     public Address update(Integer id, Address address) {
-        return addressRepository.findById(id).map(addressEntity -> {
-            logger.info("Updating existing address {}: {}", id, address);
-            addressEntity.setBuilding(address.building());
-            addressEntity.setStreet(address.street());
-            addressEntity.setTown(address.town());
-            addressEntity.setPostcode(address.postcode());
-            return save(addressEntity);
-        }).orElseThrow(() -> new AddressNotFoundException(id));
-
+        Address before = getById(id).orElseThrow(() -> new AddressNotFoundException(id));
+        logger.info("Updating existing address {}: {}", id, address);
+        String postcodeKey = Postcodes.normalize(address.postcode());
+        int updated = blacklistFlags.writing(() -> addressRepository.updateAddress(id, address.building(), address.street(),
+                address.town(), address.postcode(), postcodeKey, blacklistFlags.isBlacklisted(postcodeKey)));
+        if (updated == 0) {
+            // deleted since it was read
+            throw new AddressNotFoundException(id);
+        }
+        Address after = new Address(id, address.building(), address.street(), address.town(), address.postcode());
+        addressChangeListeners.forEach(listener -> listener.updated(before, after));
+        return after;
     }
 
     /**
-     * delete an address by id.
+     * delete an address by id with a single DELETE statement, and a missing id is reported from its row count. The
+     * deleted value, which the change listeners are told, is read through {@link #getById(Integer)}.
 
      * @param id of Address to delete
      */
     public void delete(Integer id) {
-        if (!addressRepository.existsById(id)) {
+        Address deleted = getById(id).orElseThrow(() -> new AddressNotFoundException(id));
+        logger.info("Deleting address {}", id);
+        if (addressRepository.deleteAddress(id) == 0) {
             throw new AddressNotFoundException(id);
         }
-        logger.info("Deleting address {}", id);
-        addressRepository.deleteById(id);
+        addressChangeListeners.forEach(listener -> listener.deleted(deleted));
     }
 
     /**
@@ -0,0 +1,88 @@
+package uk.co.gamma.address.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Blacklist circuit breaker guards calls to the {@link BlackListService}. Once too many calls fail or are slow
+ * the breaker opens and calls fail fast with a {@link BlacklistUnavailableException} until the upstream is probed again.
+ */
+@Component
+public class BlacklistCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlacklistCircuitBreaker.class);
+
+    private final BlackListService blackListService;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    BlacklistCircuitBreaker(BlackListService blackListService, BlacklistProperties blacklistProperties, MeterRegistry meterRegistry) {
+        this.blackListService = blackListService;
+        BlacklistProperties.CircuitBreaker properties = blacklistProperties.getCircuitBreaker();
+        this.circuitBreaker = CircuitBreaker.of("blacklist", CircuitBreakerConfig.custom()
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallDuration())
+                .slidingWindowSize(properties.getSlidingWindowSize())
+                .minimumNumberOfCalls(properties.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(properties.getWaitDurationInOpenState())
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordExceptions(IOException.class, RuntimeException.class)
+                .build());
+
+        Gauge.builder("blacklist.breaker.state", circuitBreaker, breaker -> breaker.getState().getOrder())
+                .description("Blacklist circuit breaker state: 0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            logger.warn("Blacklist circuit breaker moved from {} to {}", transition.getFromState(), transition.getToState());
+            meterRegistry.counter("blacklist.breaker.transitions",
+                    "from", transition.getFromState().name(), "to", transition.getToState().name()).increment();
+        });
+    }
+
+    /**
+     * getAll calls the {@link BlackListService} if the breaker allows it.
+     *
+     * @return List of {@link Zone}.
+     * @throws BlacklistUnavailableException if the breaker is open.
+     * @throws IOException                   if the upstream failed.
+     * @throws InterruptedException          if the call was interrupted, this is not counted against the upstream.
+     */
+    public List<Zone> getAll() throws IOException, InterruptedException {
+        try {
+            circuitBreaker.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            throw new BlacklistUnavailableException("Blacklist circuit breaker is open");
+        }
+        long start = System.nanoTime();
+        try {
+            List<Zone> zones = blackListService.getAll();
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return zones;
+        } catch (InterruptedException ie) {
+            circuitBreaker.releasePermission();
+            throw ie;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+}
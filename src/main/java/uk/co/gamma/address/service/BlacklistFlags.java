@@ -0,0 +1,147 @@
+package uk.co.gamma.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Blacklist flags keeps the {@code blacklisted} column of the address table in step with the blacklist zones, so
+ * that reads leaving blacklisted addresses out can filter them in SQL.
+ *
+ * <p>When a {@link BlacklistRefreshedEvent} carries a version that has not been applied yet, the distinct postcodes
+ * are checked against its {@link BlacklistMatcher} and the column is rewritten in one transaction on the
+ * {@code blacklistFlagsExecutor}, never on the thread that refreshed the blacklist: every flag is
+ * cleared, then the blacklisted postcodes are flagged with {@code IN} updates of at most
+ * {@code address.lookup.in-clause-size} postcodes. Writes run through {@link #writing(Supplier)} so that a row
+ * flagged with the previous zones cannot be committed while the column is being rewritten.
+ */
+@Component
+public class BlacklistFlags {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlacklistFlags.class);
+
+    private final AddressRepository addressRepository;
+    private final PostCodeBlacklistService postCodeBlacklistService;
+    private final TransactionTemplate transaction;
+    private final Executor blacklistFlagsExecutor;
+    private final int inClauseSize;
+
+    // writers take the read lock, so they run concurrently; rewriting the column takes the write lock
+    private final ReentrantReadWriteLock applyLock = new ReentrantReadWriteLock();
+    private volatile BlacklistSnapshot applied;
+    // newest snapshot refreshed and not yet taken by a rewrite, so that refreshes queued behind a rewrite collapse
+    private final AtomicReference<BlacklistSnapshot> refreshed = new AtomicReference<>();
+
+    @Autowired
+    BlacklistFlags(AddressRepository addressRepository, PostCodeBlacklistService postCodeBlacklistService,
+                   PlatformTransactionManager transactionManager, @Qualifier("blacklistFlagsExecutor") Executor blacklistFlagsExecutor,
+                   AddressProperties addressProperties) {
+        this.addressRepository = addressRepository;
+        this.postCodeBlacklistService = postCodeBlacklistService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.blacklistFlagsExecutor = blacklistFlagsExecutor;
+        this.inClauseSize = Math.max(1, addressProperties.getLookup().getInClauseSize());
+    }
+
+    /**
+     * isCurrent checks whether the column reflects the blacklist snapshot held by the cache, so that it can be used
+     * to filter. It never loads the blacklist: with no snapshot held yet the flags are not current.
+     *
+     * @return true if the flags were applied from the current snapshot.
+     */
+    public boolean isCurrent() {
+        BlacklistSnapshot flagged = applied;
+        return flagged != null && postCodeBlacklistService.peekSnapshot()
+                .map(held -> held.version() == flagged.version())
+                .orElse(false);
+    }
+
+    /**
+     * isBlacklisted gives the flag to store for a postcode. Only meaningful inside {@link #writing(Supplier)}.
+     *
+     * @param postcodeKey a postcode normalized with {@link uk.co.gamma.address.model.Postcodes#normalize(String)}.
+     * @return true if the postcode is blacklisted by the applied zones, false if none were applied yet.
+     */
+    public boolean isBlacklisted(String postcodeKey) {
+        BlacklistSnapshot flagged = applied;
+        return flagged != null && flagged.matcher().isBlacklisted(postcodeKey);
+    }
+
+    /**
+     * writing runs a write that sets flags with {@link #isBlacklisted(String)}. The write must commit before returning.
+     *
+     * @param write the write.
+     * @param <T>   result of the write.
+     * @return what the write returned.
+     */
+    public <T> T writing(Supplier<T> write) {
+        applyLock.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * blacklistRefreshed hands the rewrite of the column to the {@code blacklistFlagsExecutor} and returns. The column
+     * is rewritten if the newest refreshed snapshot has a version that was not applied yet. A failure leaves the
+     * previous flags in place, which are then not used, and is retried on the next refresh.
+     *
+     * @param event {@link BlacklistRefreshedEvent}
+     */
+    @EventListener
+    public void blacklistRefreshed(BlacklistRefreshedEvent event) {
+        refreshed.accumulateAndGet(event.snapshot(), (pending, snapshot) ->
+                pending != null && pending.version() >= snapshot.version() ? pending : snapshot);
+        blacklistFlagsExecutor.execute(this::applyRefreshed);
+    }
+
+    private void applyRefreshed() {
+        BlacklistSnapshot snapshot = refreshed.getAndSet(null);
+        if (snapshot == null) {
+            // taken by a rewrite queued earlier
+            return;
+        }
+        applyLock.writeLock().lock();
+        try {
+            if (applied != null && applied.version() >= snapshot.version()) {
+                return;
+            }
+            Integer flagged = transaction.execute(status -> apply(snapshot.matcher()));
+            applied = snapshot;
+            logger.info("Blacklist snapshot {} applied, {} addresses flagged", snapshot.version(), flagged);
+        } catch (RuntimeException re) {
+            logger.warn("Blacklist snapshot {} could not be applied to the address table", snapshot.version(), re);
+        } finally {
+            applyLock.writeLock().unlock();
+        }
+    }
+
+    private int apply(BlacklistMatcher matcher) {
+        List<String> blacklistedKeys = new ArrayList<>();
+        try (Stream<String> postcodeKeys = addressRepository.streamPostcodeKeys()) {
+            postcodeKeys.filter(matcher::isBlacklisted).forEach(blacklistedKeys::add);
+        }
+        addressRepository.clearBlacklisted();
+        int flagged = 0;
+        for (int from = 0; from < blacklistedKeys.size(); from += inClauseSize) {
+            flagged += addressRepository.markBlacklisted(blacklistedKeys.subList(from, Math.min(from + inClauseSize, blacklistedKeys.size())));
+        }
+        return flagged;
+    }
+}
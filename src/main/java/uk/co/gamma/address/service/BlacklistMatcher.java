@@ -0,0 +1,94 @@
+package uk.co.gamma.address.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import uk.co.gamma.address.index.BloomFilter;
+import uk.co.gamma.address.index.PostcodeZoneTrie;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.Postcodes;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Blacklist matcher is the compiled form of a list of {@link Zone}s: full postcodes are held in a hash set
+ * behind a {@link BloomFilter}, so that most non-blacklisted postcodes are rejected without touching the set,
+ * and area, district and sector zones are held in a {@link PostcodeZoneTrie}.
+ * Compiled once per {@link BlacklistSnapshot} and immutable afterwards.
+ */
+public final class BlacklistMatcher {
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    private final Set<String> postcodes;
+    private final BloomFilter bloomFilter;
+    private final PostcodeZoneTrie prefixes;
+
+    private BlacklistMatcher(Set<String> postcodes, BloomFilter bloomFilter, PostcodeZoneTrie prefixes) {
+        this.postcodes = postcodes;
+        this.bloomFilter = bloomFilter;
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * compile builds a matcher for the given zones.
+     *
+     * @param zones the blacklisted {@link Zone}s.
+     * @return the {@link BlacklistMatcher}.
+     */
+    public static BlacklistMatcher compile(List<Zone> zones) {
+        Set<String> postcodes = new HashSet<>();
+        BloomFilter bloomFilter = BloomFilter.create(zones.size(), BLOOM_FALSE_POSITIVE_RATE);
+        PostcodeZoneTrie prefixes = new PostcodeZoneTrie();
+        for (Zone zone : zones) {
+            String key = Postcodes.normalize(zone.getPostCode());
+            if (key == null || key.isEmpty()) {
+                continue;
+            }
+            if (zone.getLevel() == Zone.Level.POSTCODE) {
+                if (postcodes.add(key)) {
+                    bloomFilter.put(key);
+                }
+            } else {
+                prefixes.add(Postcodes.hierarchy(key));
+            }
+        }
+        return new BlacklistMatcher(Set.copyOf(postcodes), bloomFilter, prefixes);
+    }
+
+    /**
+     * isBlacklisted checks a single postcode.
+     *
+     * @param postcode the postcode, in any case or spacing.
+     * @return true if the postcode is blacklisted.
+     */
+    public boolean isBlacklisted(String postcode) {
+        String key = Postcodes.normalize(postcode);
+        if (key == null) {
+            return false;
+        }
+        if (bloomFilter.mightContain(key) && postcodes.contains(key)) {
+            return true;
+        }
+        return !prefixes.isEmpty() && prefixes.matches(Postcodes.hierarchy(key));
+    }
+
+    /**
+     * filter removes the blacklisted addresses.
+     *
+     * @param addresses the addresses to filter.
+     * @return List of {@link Address} that are not blacklisted, in their original order.
+     */
+    public List<Address> filter(List<Address> addresses) {
+        if (postcodes.isEmpty() && prefixes.isEmpty()) {
+            return new ArrayList<>(addresses);
+        }
+        List<Address> allowed = new ArrayList<>(addresses.size());
+        for (Address address : addresses) {
+            if (!isBlacklisted(address.postcode())) {
+                allowed.add(address);
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,10 @@
+package uk.co.gamma.address.service;
+
+/**
+ * Published by {@link BlacklistSnapshotCache} after every successful refresh. The snapshot keeps the previous
+ * version when the zones did not change, so listeners can compare versions to skip unchanged blacklists.
+ *
+ * @param snapshot the new current {@link BlacklistSnapshot}.
+ */
+public record BlacklistRefreshedEvent(BlacklistSnapshot snapshot) {
+}
@@ -0,0 +1,59 @@
+package uk.co.gamma.address.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Immutable copy of the blacklisted {@link Zone}s as returned by one call to {@link BlackListService#getAll()}.
+ *
+ * @param version  increasing number identifying the zones, kept by refreshes that return the same zones.
+ * @param zones    the blacklisted zones, null is taken as none.
+ * @param loadedAt when the zones were fetched.
+ * @param matcher  the zones compiled for lookups.
+ */
+public record BlacklistSnapshot(long version, List<Zone> zones, Instant loadedAt, BlacklistMatcher matcher) {
+
+    public BlacklistSnapshot {
+        zones = orEmpty(zones);
+    }
+
+    public BlacklistSnapshot(long version, List<Zone> zones, Instant loadedAt) {
+        this(version, zones, loadedAt, BlacklistMatcher.compile(orEmpty(zones)));
+    }
+
+    /**
+     * sameZones checks whether freshly fetched zones are the ones of this snapshot, in the same order.
+     *
+     * @param other the zones to compare, null is taken as none.
+     * @return true if both hold the same postcodes.
+     */
+    public boolean sameZones(List<Zone> other) {
+        other = orEmpty(other);
+        if (other.size() != zones.size()) {
+            return false;
+        }
+        for (int i = 0; i < zones.size(); i++) {
+            if (!Objects.equals(zones.get(i).getPostCode(), other.get(i).getPostCode())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * age of the snapshot.
+     *
+     * @param now the current instant.
+     * @return time elapsed since the snapshot was loaded.
+     */
+    public Duration age(Instant now) {
+        return Duration.between(loadedAt, now);
+    }
+
+    private static List<Zone> orEmpty(List<Zone> zones) {
+        return zones == null ? List.of() : List.copyOf(zones);
+    }
+}
@@ -0,0 +1,126 @@
+package uk.co.gamma.address.service;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Blacklist Snapshot cache keeps the latest {@link BlacklistSnapshot} in memory so that requests
+ * do not have to wait on the slow {@link BlackListService}.
+ * The snapshot is refreshed in the background every {@code blacklist.cache.ttl}; callers only block
+ * on the upstream when there is no snapshot yet or the current one is older than {@code blacklist.cache.max-staleness}.
+ */
+@Component
+public class BlacklistSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlacklistSnapshotCache.class);
+
+    private final CoalescingBlacklistFetcher blacklistFetcher;
+    private final Duration maxStaleness;
+    private final Duration fallbackMaxStaleness;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    private final AtomicReference<BlacklistSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    @Autowired
+    BlacklistSnapshotCache(CoalescingBlacklistFetcher blacklistFetcher, BlacklistProperties blacklistProperties, ApplicationEventPublisher eventPublisher) {
+        this(blacklistFetcher, blacklistProperties, eventPublisher, Clock.systemUTC());
+    }
+
+    BlacklistSnapshotCache(CoalescingBlacklistFetcher blacklistFetcher, BlacklistProperties blacklistProperties,
+                           ApplicationEventPublisher eventPublisher, Clock clock) {
+        this.blacklistFetcher = blacklistFetcher;
+        this.eventPublisher = eventPublisher;
+        this.maxStaleness = blacklistProperties.getCache().getMaxStaleness();
+        this.fallbackMaxStaleness = blacklistProperties.getCircuitBreaker().getFallbackMaxStaleness();
+        this.clock = clock;
+    }
+
+    /**
+     * get returns the current snapshot, loading it from the {@link BlackListService} if it is missing or too stale.
+     * While the circuit breaker is open, the last known good snapshot is served up to {@code blacklist.circuit-breaker.fallback-max-staleness}.
+     *
+     * @return the current {@link BlacklistSnapshot}.
+     * @throws IOException          if a blocking load was needed and the upstream failed.
+     * @throws InterruptedException if a blocking load was needed and was interrupted.
+     */
+    public BlacklistSnapshot get() throws IOException, InterruptedException {
+        BlacklistSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.age(clock.instant()).compareTo(maxStaleness) <= 0) {
+            return snapshot;
+        }
+        logger.info("No usable blacklist snapshot, loading it synchronously");
+        try {
+            return refresh();
+        } catch (BlacklistUnavailableException bue) {
+            if (snapshot != null && snapshot.age(clock.instant()).compareTo(fallbackMaxStaleness) <= 0) {
+                logger.warn("Blacklist upstream unavailable, serving snapshot {} loaded at {}", snapshot.version(), snapshot.loadedAt());
+                return snapshot;
+            }
+            throw bue;
+        }
+    }
+
+    /**
+     * peek returns the snapshot held right now, without loading or refreshing it, however stale it is.
+     *
+     * @return the held {@link BlacklistSnapshot}, empty before the first load.
+     */
+    public Optional<BlacklistSnapshot> peek() {
+        return Optional.ofNullable(current.get());
+    }
+
+    /**
+     * refresh fetches the zones through the {@link CoalescingBlacklistFetcher} and replaces the current snapshot.
+     * When the zones did not change the new snapshot keeps the previous version and matcher, so that anything
+     * derived from the version, such as cached responses, stays valid. A {@link BlacklistRefreshedEvent} is
+     * published once the new snapshot is current.
+     *
+     * @return the new {@link BlacklistSnapshot}.
+     * @throws IOException          if the upstream failed.
+     * @throws InterruptedException if the fetch was interrupted.
+     */
+    public BlacklistSnapshot refresh() throws IOException, InterruptedException {
+        List<Zone> zones = blacklistFetcher.getAll();
+        BlacklistSnapshot previous = current.get();
+        BlacklistSnapshot snapshot = previous != null && previous.sameZones(zones)
+                ? new BlacklistSnapshot(previous.version(), previous.zones(), clock.instant(), previous.matcher())
+                : new BlacklistSnapshot(versions.incrementAndGet(), zones, clock.instant());
+        current.set(snapshot);
+        try {
+            eventPublisher.publishEvent(new BlacklistRefreshedEvent(snapshot));
+        } catch (RuntimeException re) {
+            logger.warn("Blacklist snapshot {} listener failed", snapshot.version(), re);
+        }
+        return snapshot;
+    }
+
+    /**
+     * scheduledRefresh revalidates the snapshot in the background. Failures keep the previous snapshot in place.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${blacklist.cache.ttl:PT1M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (IOException ioe) {
+            logger.warn("Background blacklist refresh failed, keeping the previous snapshot", ioe);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
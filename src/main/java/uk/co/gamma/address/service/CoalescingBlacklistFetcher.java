@@ -0,0 +1,113 @@
+package uk.co.gamma.address.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Coalescing Blacklist fetcher sits in front of the {@link BlackListService} so that concurrent callers
+ * share a single in-flight {@link BlackListService#getAll()} call and all receive its result.
+ * Upstream calls go through the {@link HedgingBlacklistFetcher}. If the caller making the shared call is interrupted,
+ * only that caller fails: the others start a new shared call.
+ */
+@Component
+public class CoalescingBlacklistFetcher {
+
+    // told apart by identity, so that no list the upstream returns can be taken for it
+    private static final List<Zone> ABANDONED = Collections.unmodifiableList(new ArrayList<>());
+
+    private final HedgingBlacklistFetcher hedgingBlacklistFetcher;
+    private final AtomicReference<InFlightFetch> inFlight = new AtomicReference<>();
+
+    private final Counter fetches;
+    private final DistributionSummary coalescedCallers;
+
+    @Autowired
+    CoalescingBlacklistFetcher(HedgingBlacklistFetcher hedgingBlacklistFetcher, MeterRegistry meterRegistry) {
+        this.hedgingBlacklistFetcher = hedgingBlacklistFetcher;
+        this.fetches = Counter.builder("blacklist.fetch.upstream")
+                .description("Calls made to the blacklist upstream")
+                .register(meterRegistry);
+        this.coalescedCallers = DistributionSummary.builder("blacklist.fetch.coalesced")
+                .description("Callers that joined an in-flight blacklist fetch instead of starting their own")
+                .baseUnit("callers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * getAll returns the blacklisted zones, joining the in-flight fetch if there is one.
+     *
+     * @return List of {@link Zone}.
+     * @throws IOException          if the shared fetch failed.
+     * @throws InterruptedException if the calling thread was interrupted while fetching or waiting.
+     */
+    public List<Zone> getAll() throws IOException, InterruptedException {
+        while (true) {
+            InFlightFetch candidate = new InFlightFetch();
+            InFlightFetch existing = inFlight.compareAndExchange(null, candidate);
+            if (existing == null) {
+                return lead(candidate);
+            }
+            existing.joined.incrementAndGet();
+            List<Zone> zones = await(existing.result);
+            if (zones != ABANDONED) {
+                return zones;
+            }
+        }
+    }
+
+    private List<Zone> lead(InFlightFetch fetch) throws IOException, InterruptedException {
+        fetches.increment();
+        try {
+            List<Zone> zones = hedgingBlacklistFetcher.getAll();
+            inFlight.compareAndSet(fetch, null);
+            fetch.result.complete(zones);
+            return zones;
+        } catch (InterruptedException ie) {
+            // the interrupt was meant for this thread only, the joined callers fetch again
+            inFlight.compareAndSet(fetch, null);
+            fetch.result.cancel(false);
+            throw ie;
+        } catch (Throwable t) {
+            // errors included, so that no joined caller is left waiting on a fetch that never completes
+            inFlight.compareAndSet(fetch, null);
+            fetch.result.completeExceptionally(t);
+            throw t;
+        } finally {
+            coalescedCallers.record(fetch.joined.get());
+        }
+    }
+
+    /**
+     * await waits for a shared fetch.
+     *
+     * @return the zones, {@link #ABANDONED} if the fetch was abandoned and must be made again.
+     */
+    private static List<Zone> await(CompletableFuture<List<Zone>> result) throws IOException, InterruptedException {
+        try {
+            return result.get();
+        } catch (CancellationException ce) {
+            return ABANDONED;
+        } catch (ExecutionException ee) {
+            throw ExecutionFailures.unwrap(ee);
+        }
+    }
+
+    private static final class InFlightFetch {
+
+        private final CompletableFuture<List<Zone>> result = new CompletableFuture<>();
+        private final AtomicInteger joined = new AtomicInteger();
+    }
+}
@@ -0,0 +1,143 @@
+package uk.co.gamma.address.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.index.CompactAddressTable;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Compact address store keeps the whole address table in a {@link CompactAddressTable}, when
+ * {@code address.compact-store.enabled} is set. It is loaded from the database once the application is ready and
+ * then follows the writes as an {@link AddressChangeListener}. Writes committed while it loads are replayed
+ * once the load has finished, so none is lost.
+ */
+@Component
+public class CompactAddressStore implements AddressChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactAddressStore.class);
+
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private volatile CompactAddressTable table;
+    // changes told while the table loads, guarded by this
+    private List<Consumer<CompactAddressTable>> pending;
+
+    @Autowired
+    CompactAddressStore(AddressRepository addressRepository, PlatformTransactionManager transactionManager, AddressProperties addressProperties) {
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = addressProperties.getCompactStore().isEnabled();
+    }
+
+    /**
+     * load streams the address table into the store, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        CompactAddressTable loaded = new CompactAddressTable();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Address> addresses = addressRepository.streamAddresses()) {
+                addresses.forEach(loaded::put);
+            }
+        });
+        synchronized (this) {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            table = loaded;
+        }
+        logger.info("Compact address store loaded with {} addresses", loaded.size());
+    }
+
+    /**
+     * isReady tells whether the store holds the address table and can serve reads.
+     *
+     * @return true once loaded.
+     */
+    public boolean isReady() {
+        return table != null;
+    }
+
+    /**
+     * get reads one address. Only call once {@link #isReady()}.
+     *
+     * @param id the address id.
+     * @return {@link Address} Optional, empty if there is no address with the id.
+     */
+    public Optional<Address> get(int id) {
+        return Optional.ofNullable(table.get(id));
+    }
+
+    /**
+     * getAll reads every address in id order. Only call once {@link #isReady()}.
+     *
+     * @param excluded tells which postcodes to leave out, null to leave none out.
+     * @return {@link Address} list.
+     */
+    public List<Address> getAll(Predicate<String> excluded) {
+        CompactAddressTable current = table;
+        return current.page(0, current.size(), excluded);
+    }
+
+    /**
+     * getPage reads one page of addresses in id order. Only call once {@link #isReady()}.
+     *
+     * @param afterId  only addresses with a greater id are returned.
+     * @param limit    maximum number of addresses returned.
+     * @param excluded tells which postcodes to leave out, null to leave none out.
+     * @return {@link Address} list.
+     */
+    public List<Address> getPage(int afterId, int limit, Predicate<String> excluded) {
+        return table.page(afterId, limit, excluded);
+    }
+
+    @Override
+    public void created(Address address) {
+        apply(current -> current.put(address));
+    }
+
+    @Override
+    public void updated(Address before, Address after) {
+        apply(current -> current.put(after));
+    }
+
+    @Override
+    public void deleted(Address address) {
+        apply(current -> current.remove(address.id()));
+    }
+
+    private void apply(Consumer<CompactAddressTable> change) {
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(change);
+                return;
+            }
+        }
+        CompactAddressTable current = table;
+        if (current != null) {
+            change.accept(current);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package uk.co.gamma.address.service;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Maps failures of blacklist work run on another thread back onto the checked exceptions of {@link BlackListService#getAll()}.
+ */
+final class ExecutionFailures {
+
+    private ExecutionFailures() {
+    }
+
+    /**
+     * unwrap returns the IOException to throw for a failed task, unchecked causes are rethrown as they are.
+     * An interrupted task is reported as an IOException since it is the other thread, not the caller, that was interrupted.
+     */
+    static IOException unwrap(ExecutionException ee) {
+        Throwable cause = ee.getCause();
+        if (cause instanceof IOException ioe) {
+            return ioe;
+        }
+        if (cause instanceof RuntimeException re) {
+            throw re;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException("Blacklist fetch failed on another thread", cause);
+    }
+}
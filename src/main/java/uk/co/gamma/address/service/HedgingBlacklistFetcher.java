@@ -0,0 +1,123 @@
+package uk.co.gamma.address.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
+import uk.co.gamma.address.model.Zone;
+
+/**
+ * Hedging Blacklist fetcher cuts the tail latency of the blacklist upstream. When {@code blacklist.hedging.enabled}
+ * is set, a second call is started if the first one has not answered within {@code blacklist.hedging.delay},
+ * or as soon as it fails, and whichever answers first wins. The number of hedges running at once is capped
+ * by {@code blacklist.hedging.max-concurrent-hedges} so that hedging cannot multiply the load on the upstream.
+ */
+@Component
+public class HedgingBlacklistFetcher {
+
+    private final BlacklistCircuitBreaker blacklistCircuitBreaker;
+    private final Executor executor;
+    private final boolean enabled;
+    private final Duration delay;
+    private final Semaphore hedgePermits;
+
+    private final Counter hedgesStarted;
+    private final Counter hedgesWon;
+
+    @Autowired
+    HedgingBlacklistFetcher(BlacklistCircuitBreaker blacklistCircuitBreaker, @Qualifier("blacklistExecutor") Executor executor,
+                            BlacklistProperties blacklistProperties, MeterRegistry meterRegistry) {
+        this.blacklistCircuitBreaker = blacklistCircuitBreaker;
+        this.executor = executor;
+        BlacklistProperties.Hedging properties = blacklistProperties.getHedging();
+        this.enabled = properties.isEnabled();
+        this.delay = properties.getDelay();
+        this.hedgePermits = new Semaphore(properties.getMaxConcurrentHedges());
+        this.hedgesStarted = meterRegistry.counter("blacklist.hedge.started");
+        this.hedgesWon = meterRegistry.counter("blacklist.hedge.won");
+    }
+
+    /**
+     * getAll fetches the zones, hedging the upstream call when enabled.
+     *
+     * @return List of {@link Zone} from the first call to succeed.
+     * @throws IOException          if every call made failed.
+     * @throws InterruptedException if the calling thread was interrupted while waiting.
+     */
+    public List<Zone> getAll() throws IOException, InterruptedException {
+        if (!enabled) {
+            return blacklistCircuitBreaker.getAll();
+        }
+        CompletionService<List<Zone>> calls = new ExecutorCompletionService<>(executor);
+        List<Future<List<Zone>>> started = new ArrayList<>(2);
+        Future<List<Zone>> hedge = null;
+        try {
+            started.add(calls.submit(blacklistCircuitBreaker::getAll));
+            boolean hedgeConsidered = false;
+            IOException failure = null;
+            while (!started.isEmpty()) {
+                Future<List<Zone>> done = hedgeConsidered ? calls.take() : calls.poll(delay.toNanos(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    hedgeConsidered = true;
+                    hedge = startHedge(calls, started);
+                    continue;
+                }
+                started.remove(done);
+                try {
+                    List<Zone> zones = done.get();
+                    if (done == hedge) {
+                        hedgesWon.increment();
+                    }
+                    return zones;
+                } catch (ExecutionException ee) {
+                    failure = ExecutionFailures.unwrap(ee);
+                    if (!hedgeConsidered && !(failure instanceof BlacklistUnavailableException)) {
+                        hedgeConsidered = true;
+                        hedge = startHedge(calls, started);
+                    }
+                }
+            }
+            throw failure;
+        } catch (RejectedExecutionException ree) {
+            throw new IOException("No thread available to call the blacklist upstream", ree);
+        } finally {
+            started.forEach(call -> call.cancel(true));
+        }
+    }
+
+    private Future<List<Zone>> startHedge(CompletionService<List<Zone>> calls, List<Future<List<Zone>>> started) {
+        if (!hedgePermits.tryAcquire()) {
+            return null;
+        }
+        try {
+            Future<List<Zone>> hedge = calls.submit(() -> {
+                try {
+                    return blacklistCircuitBreaker.getAll();
+                } finally {
+                    hedgePermits.release();
+                }
+            });
+            hedgesStarted.increment();
+            started.add(hedge);
+            return hedge;
+        } catch (RejectedExecutionException ree) {
+            hedgePermits.release();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package uk.co.gamma.address.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.index.BloomFilter;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.Postcodes;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Known postcode filter is a {@link BloomFilter} of the postcodes held in the address table, so that lookups of
+ * postcodes we do not hold can be answered without reading the database or the blacklist.
+ * It is built once the application is ready, follows creates and updates as an {@link AddressChangeListener}, and is
+ * rebuilt every {@code address.postcode-filter.rebuild-interval} to forget deleted postcodes. Until the first build
+ * every postcode is reported as possibly known.
+ *
+ * <p>The expected false positive rate is published as {@code address.postcode.filter.fpp} and the lookups answered by
+ * the filter alone as {@code address.postcode.filter.misses}.
+ */
+@Component
+public class KnownPostcodeFilter implements AddressChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownPostcodeFilter.class);
+    private static final int MIN_EXPECTED_POSTCODES = 1024;
+
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double falsePositiveRate;
+    private final double headroom;
+    private final Counter misses;
+
+    // writers take the read lock, so they run concurrently; a rebuild takes the write lock only to swap filters
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Set<String> addedDuringRebuild = new HashSet<>();
+    private volatile BloomFilter filter;
+    private boolean rebuilding;
+
+    @Autowired
+    KnownPostcodeFilter(AddressRepository addressRepository, PlatformTransactionManager transactionManager,
+                        AddressProperties addressProperties, MeterRegistry meterRegistry) {
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.falsePositiveRate = addressProperties.getPostcodeFilter().getFalsePositiveRate();
+        this.headroom = Math.max(1, addressProperties.getPostcodeFilter().getHeadroom());
+        this.misses = Counter.builder("address.postcode.filter.misses")
+                .description("Postcode lookups answered as unknown without reading the database")
+                .register(meterRegistry);
+        Gauge.builder("address.postcode.filter.fpp", this, KnownPostcodeFilter::expectedFalsePositiveRate)
+                .description("Expected false positive rate of the known postcode filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * mightBeKnown checks the filter.
+     *
+     * @param postcodeKey a postcode normalized with {@link Postcodes#normalize(String)}.
+     * @return false if no address has the postcode.
+     */
+    public boolean mightBeKnown(String postcodeKey) {
+        BloomFilter current = filter;
+        if (current == null || postcodeKey == null || current.mightContain(postcodeKey)) {
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * expectedFalsePositiveRate estimates how often an unknown postcode still reaches the database.
+     *
+     * @return the expected false positive rate, 1 before the filter is built.
+     */
+    public double expectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 1 : current.expectedFalsePositiveRate();
+    }
+
+    /**
+     * rebuild builds a new filter from the address table and swaps it in. Postcodes written while the table is
+     * being read are added to the new filter before the swap, so the filter never misses a known postcode.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        swapLock.writeLock().lock();
+        try {
+            rebuilding = true;
+            addedDuringRebuild.clear();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        BloomFilter rebuilt = null;
+        try {
+            int expected = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_EXPECTED_POSTCODES, addressRepository.countPostcodeKeys() * headroom));
+            BloomFilter loading = BloomFilter.create(expected, falsePositiveRate);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> postcodeKeys = addressRepository.streamPostcodeKeys()) {
+                    postcodeKeys.forEach(loading::put);
+                }
+            });
+            rebuilt = loading;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    addedDuringRebuild.forEach(rebuilt::put);
+                    filter = rebuilt;
+                }
+                rebuilding = false;
+                addedDuringRebuild.clear();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        logger.info("Known postcode filter rebuilt, expected false positive rate {}", rebuilt.expectedFalsePositiveRate());
+    }
+
+    /**
+     * scheduledRebuild rebuilds the filter periodically. Failures keep the previous filter in place.
+     */
+    @Scheduled(initialDelayString = "${address.postcode-filter.rebuild-interval:PT1H}", fixedDelayString = "${address.postcode-filter.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException re) {
+            logger.warn("Known postcode filter rebuild failed, keeping the previous filter", re);
+        }
+    }
+
+    @Override
+    public void created(Address address) {
+        add(Postcodes.normalize(address.postcode()));
+    }
+
+    @Override
+    public void updated(Address before, Address after) {
+        add(Postcodes.normalize(after.postcode()));
+    }
+
+    @Override
+    public void deleted(Address address) {
+        // Bloom filters cannot forget a key, deleted postcodes are dropped by the next rebuild
+    }
+
+    private void add(String postcodeKey) {
+        if (postcodeKey == null) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(postcodeKey);
+            }
+            if (rebuilding) {
+                synchronized (addedDuringRebuild) {
+                    addedDuringRebuild.add(postcodeKey);
+                }
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+}
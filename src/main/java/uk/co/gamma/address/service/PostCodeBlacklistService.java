@@ -2,13 +2,18 @@ package uk.co.gamma.address.service;
 
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
+import uk.co.gamma.address.exception.BlackListReadingException;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
 import uk.co.gamma.address.model.Address;
-import uk.co.gamma.address.model.Zone;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Postcode Blacklist service is a Service class that performs checks on postcodes
@@ -17,10 +22,15 @@ import java.util.stream.Collectors;
 @Service
 public class PostCodeBlacklistService {
 
-    private final BlackListService blackListService;
+    private final BlacklistSnapshotCache blacklistSnapshotCache;
+    // the retries of the @Retryable methods, for snapshotOrThrow, whose own call would not pass through the retry proxy
+    private final RetryTemplate snapshotRetry = RetryTemplate.builder()
+            .customPolicy(new SimpleRetryPolicy(2, Map.of(IOException.class, true, BlacklistUnavailableException.class, false)))
+            .fixedBackoff(100)
+            .build();
 
-    public PostCodeBlacklistService(BlackListService blackListService) {
-        this.blackListService = blackListService;
+    public PostCodeBlacklistService(BlacklistSnapshotCache blacklistSnapshotCache) {
+        this.blacklistSnapshotCache = blacklistSnapshotCache;
     }
 
     /**
@@ -29,15 +39,10 @@ public class PostCodeBlacklistService {
      * @param addresses list of addresses to filter.
      * @return List  {@link Address} filtered addresses.
      */
-    @Retryable(retryFor = IOException.class, maxAttempts = 2, backoff = @Backoff(delay = 100))
+    @Retryable(retryFor = IOException.class, noRetryFor = BlacklistUnavailableException.class, maxAttempts = 2, backoff = @Backoff(delay = 100))
     public List<Address> filterBlacklistedAddresses(List<Address> addresses) throws IOException, InterruptedException {
 
-        List<Zone> blackListedZones = blackListService.getAll();
-
-        return addresses.stream()
-                .filter(address -> blackListedZones.stream()
-                        .noneMatch(zone -> address.postcode().equalsIgnoreCase(zone.getPostCode())))
-                .collect(Collectors.toList());
+        return blacklistSnapshotCache.get().matcher().filter(addresses);
     }
 
     /**
@@ -46,11 +51,44 @@ public class PostCodeBlacklistService {
      * @param postcode postcode to check.
      * @return {@link boolean} true if the postcode is blacklisted.
      */
-    @Retryable(retryFor = IOException.class, maxAttempts = 2, backoff = @Backoff(delay = 100))
+    @Retryable(retryFor = IOException.class, noRetryFor = BlacklistUnavailableException.class, maxAttempts = 2, backoff = @Backoff(delay = 100))
     public boolean isAddressBlackListed(String postcode) throws IOException, InterruptedException {
 
-        List<Zone> blackListedZones = blackListService.getAll();
+        return blacklistSnapshotCache.get().matcher().isBlacklisted(postcode);
+    }
+
+    /**
+     * peekSnapshot returns the blacklist snapshot already held, without loading it, for callers on the read path
+     * that only compare versions.
+     *
+     * @return the held {@link BlacklistSnapshot}, empty before the first load.
+     */
+    public Optional<BlacklistSnapshot> peekSnapshot() {
 
-        return blackListedZones.stream().anyMatch(zone -> zone.getPostCode().equalsIgnoreCase(postcode));
+        return blacklistSnapshotCache.peek();
+    }
+
+    /**
+     * snapshotOrThrow returns the current blacklist snapshot, for callers that answer a failure with an error
+     * response. An interrupt is reported with {@link AddressService#ERROR_OCCURRED_BLACKLISTED}
+     * and kept on the thread, an upstream failure with {@link AddressService#ERROR_OCCURRED_BLACKLISTED_RETRY}.
+     *
+     * @return the current {@link BlacklistSnapshot}.
+     * @throws BlackListReadingException if the snapshot could not be read.
+     */
+    public BlacklistSnapshot snapshotOrThrow() {
+        try {
+            return snapshotRetry.execute(context -> blacklistSnapshotCache.get());
+        } catch (InterruptedException | BackOffInterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED);
+        } catch (IOException ioe) {
+            throw new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY);
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            // get() only throws the exceptions handled above
+            throw new IllegalStateException(e);
+        }
     }
 }
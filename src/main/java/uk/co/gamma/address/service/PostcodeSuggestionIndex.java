@@ -0,0 +1,158 @@
+package uk.co.gamma.address.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.index.PostcodePrefixIndex;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.model.Postcodes;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+/**
+ * Postcode suggestion index keeps the postcodes of the address table in a {@link PostcodePrefixIndex} for typeahead.
+ * It is loaded from the database once the application is ready and then follows the writes as an
+ * {@link AddressChangeListener}. Writes committed while it loads are applied to the loaded index before it is
+ * swapped in, so none is lost.
+ */
+@Component
+public class PostcodeSuggestionIndex implements AddressChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostcodeSuggestionIndex.class);
+
+    private final AddressRepository addressRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile PostcodePrefixIndex index = new PostcodePrefixIndex();
+    // latest postcode of every address written while the index loads, null once deleted; guarded by this
+    private Map<Integer, String> writtenDuringRebuild;
+
+    @Autowired
+    PostcodeSuggestionIndex(AddressRepository addressRepository, PlatformTransactionManager transactionManager) {
+        this.addressRepository = addressRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * rebuild streams the address table into a new index and swaps it in. The index counts addresses, so writes
+     * cannot simply be replayed: the postcode each written address was loaded with is taken back out, and the
+     * postcode it was last written with is put in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            writtenDuringRebuild = new HashMap<>();
+        }
+        PostcodePrefixIndex rebuilt = new PostcodePrefixIndex();
+        LoadedPostcodes loaded = new LoadedPostcodes();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Address> addresses = addressRepository.streamAddresses()) {
+                    addresses.forEach(address -> {
+                        String postcodeKey = loaded.add(address.id(), Postcodes.normalize(address.postcode()));
+                        rebuilt.add(postcodeKey);
+                    });
+                }
+            });
+        } catch (RuntimeException re) {
+            synchronized (this) {
+                writtenDuringRebuild = null;
+            }
+            throw re;
+        }
+        synchronized (this) {
+            writtenDuringRebuild.forEach((id, postcodeKey) -> {
+                rebuilt.remove(loaded.postcodeKey(id));
+                rebuilt.add(postcodeKey);
+            });
+            writtenDuringRebuild = null;
+            index = rebuilt;
+        }
+        logger.info("Postcode suggestion index loaded with {} postcodes", rebuilt.size());
+    }
+
+    /**
+     * suggest lists postcodes starting with the prefix, in alphabetical order.
+     *
+     * @param prefix  the start of a postcode, in any case and spacing.
+     * @param limit   maximum number of postcodes returned.
+     * @param matcher blacklisted postcodes are left out, null to keep them.
+     * @return List of {@link PostcodeSuggestion}. Empty if the prefix is blank.
+     */
+    public List<PostcodeSuggestion> suggest(String prefix, int limit, BlacklistMatcher matcher) {
+        String key = Postcodes.normalize(prefix);
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+        return index.complete(key, limit, matcher == null ? postcode -> false : matcher::isBlacklisted);
+    }
+
+    @Override
+    public synchronized void created(Address address) {
+        String postcodeKey = Postcodes.normalize(address.postcode());
+        written(address.id(), postcodeKey);
+        index.add(postcodeKey);
+    }
+
+    @Override
+    public synchronized void updated(Address before, Address after) {
+        String beforeKey = Postcodes.normalize(before.postcode());
+        String afterKey = Postcodes.normalize(after.postcode());
+        written(after.id(), afterKey);
+        if (!Objects.equals(beforeKey, afterKey)) {
+            index.remove(beforeKey);
+            index.add(afterKey);
+        }
+    }
+
+    @Override
+    public synchronized void deleted(Address address) {
+        written(address.id(), null);
+        index.remove(Postcodes.normalize(address.postcode()));
+    }
+
+    private void written(int id, String postcodeKey) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.put(id, postcodeKey);
+        }
+    }
+
+    /**
+     * Postcode of every address read by a rebuild, by id. Addresses are read in id order, so ids are appended to a
+     * sorted array; postcodes are shared between the addresses that have them.
+     */
+    private static final class LoadedPostcodes {
+
+        private final Map<String, String> postcodeKeys = new HashMap<>();
+        private int[] ids = new int[1024];
+        private String[] keys = new String[1024];
+        private int size;
+
+        private String add(int id, String postcodeKey) {
+            String shared = postcodeKey == null ? null : postcodeKeys.computeIfAbsent(postcodeKey, key -> key);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1));
+                keys = Arrays.copyOf(keys, ids.length);
+            }
+            ids[size] = id;
+            keys[size++] = shared;
+            return shared;
+        }
+
+        private String postcodeKey(int id) {
+            int found = Arrays.binarySearch(ids, 0, size, id);
+            return found < 0 ? null : keys[found];
+        }
+    }
+}
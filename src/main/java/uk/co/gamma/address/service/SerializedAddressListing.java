@@ -0,0 +1,122 @@
+package uk.co.gamma.address.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.gamma.address.model.Address;
+
+/**
+ * Serialized address listing keeps the JSON of the full address listing, plain and gzip compressed, so that repeated
+ * reads of an unchanged table only copy bytes. The listings with and without blacklisted addresses are kept apart.
+ *
+ * <p>A listing is current while the {@link AddressDatasetVersion} it was read at has not moved and, once blacklisted
+ * addresses are filtered out, while the {@link BlacklistSnapshot} version is the one it was filtered with. A stale
+ * listing is serialized again by the first reader to notice, the others wait for it. Serializations are counted
+ * in {@code address.listing.serializations}.
+ */
+@Component
+public class SerializedAddressListing {
+
+    private final AddressService addressService;
+    private final PostCodeBlacklistService postCodeBlacklistService;
+    private final AddressDatasetVersion addressDatasetVersion;
+    private final ObjectMapper objectMapper;
+    private final Counter serializations;
+
+    private volatile Listing all;
+    private volatile Listing withoutBlacklisted;
+
+    /**
+     * Constructor.
+     *
+     * @param addressService           reads the addresses.
+     * @param postCodeBlacklistService {@link PostCodeBlacklistService}
+     * @param addressDatasetVersion    {@link AddressDatasetVersion}
+     * @param objectMapper             the mapper of the web layer, so the bytes match what it would write.
+     * @param meterRegistry            {@link MeterRegistry}
+     */
+    @Autowired
+    SerializedAddressListing(AddressService addressService, PostCodeBlacklistService postCodeBlacklistService,
+                             AddressDatasetVersion addressDatasetVersion, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.addressService = addressService;
+        this.postCodeBlacklistService = postCodeBlacklistService;
+        this.addressDatasetVersion = addressDatasetVersion;
+        this.objectMapper = objectMapper;
+        this.serializations = Counter.builder("address.listing.serializations")
+                .description("Full address listings serialized because the data or the blacklist changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * get returns the current serialized listing, serializing it first if the data or the blacklist changed.
+     *
+     * @param includeBlacklisted if false blacklisted addresses are left out.
+     * @return the current {@link Listing}.
+     */
+    public Listing get(boolean includeBlacklisted) {
+        long dataVersion = addressDatasetVersion.current();
+        if (includeBlacklisted) {
+            Listing listing = all;
+            if (listing != null && listing.dataVersion() == dataVersion) {
+                return listing;
+            }
+            synchronized (this) {
+                listing = all;
+                if (listing == null || listing.dataVersion() != dataVersion) {
+                    listing = serialize(dataVersion, 0, addressService.getAll(true));
+                    all = listing;
+                }
+                return listing;
+            }
+        }
+
+        BlacklistSnapshot blacklist = postCodeBlacklistService.snapshotOrThrow();
+        Listing listing = withoutBlacklisted;
+        if (listing != null && listing.dataVersion() == dataVersion && listing.blacklistVersion() == blacklist.version()) {
+            return listing;
+        }
+        synchronized (this) {
+            listing = withoutBlacklisted;
+            if (listing == null || listing.dataVersion() != dataVersion || listing.blacklistVersion() != blacklist.version()) {
+                listing = serialize(dataVersion, blacklist.version(), blacklist.matcher().filter(addressService.getAll(true)));
+                withoutBlacklisted = listing;
+            }
+            return listing;
+        }
+    }
+
+    private Listing serialize(long dataVersion, long blacklistVersion, List<Address> addresses) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(addresses);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            serializations.increment();
+            return new Listing(dataVersion, blacklistVersion, json, compressed.toByteArray());
+        } catch (JsonProcessingException jpe) {
+            throw new IllegalStateException(jpe);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /**
+     * One serialized listing. The arrays are shared between readers and must not be modified.
+     *
+     * @param dataVersion      the {@link AddressDatasetVersion} the addresses were read at.
+     * @param blacklistVersion the {@link BlacklistSnapshot} version they were filtered with, 0 if not filtered.
+     * @param json             the listing as a JSON array.
+     * @param gzip             the same JSON, gzip compressed.
+     */
+    public record Listing(long dataVersion, long blacklistVersion, byte[] json, byte[] gzip) {
+    }
+}
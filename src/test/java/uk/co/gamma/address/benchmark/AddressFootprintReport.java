@@ -0,0 +1,83 @@
+package uk.co.gamma.address.benchmark;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import uk.co.gamma.address.index.CompactAddressTable;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+
+/**
+ * Reports the heap held by one million addresses as {@link AddressEntity} objects, as {@link Address} records and
+ * in a {@link CompactAddressTable}. Every row gets its own strings, as rows read from the database do. Run with a
+ * fixed heap, such as {@code -Xms2g -Xmx2g}, so that the used heap after a full collection is steady.
+ */
+public class AddressFootprintReport {
+
+    private static final int ROWS = 1_000_000;
+    private static final String[] TOWNS = {"Newbury", "Reading", "London", "Manchester", "Leeds", "Bristol", "Oxford", "Swindon"};
+    private static final String[] STREETS = {"Station Road", "High Street", "Church Lane", "Mill Lane", "Victoria Road", "Park Avenue"};
+
+    public static void main(String[] args) {
+        report("AddressEntity list", () -> {
+            List<AddressEntity> entities = new ArrayList<>(ROWS);
+            forEachRow(id -> entities.add(new AddressEntity(id, building(id), street(id), town(id), postcode(id))));
+            return entities;
+        });
+        report("Address list", () -> {
+            List<Address> addresses = new ArrayList<>(ROWS);
+            forEachRow(id -> addresses.add(new Address(id, building(id), street(id), town(id), postcode(id))));
+            return addresses;
+        });
+        report("CompactAddressTable", () -> {
+            CompactAddressTable table = new CompactAddressTable();
+            forEachRow(id -> table.put(new Address(id, building(id), street(id), town(id), postcode(id))));
+            return table;
+        });
+    }
+
+    private static void report(String representation, Supplier<Object> build) {
+        long before = usedHeap();
+        Object held = build.get();
+        long after = usedHeap();
+        System.out.printf("%-20s %,6d MB per million addresses%n", representation, (after - before) >> 20);
+        Reference.reachabilityFence(held);
+    }
+
+    private static void forEachRow(IntConsumer row) {
+        for (int id = 1; id <= ROWS; id++) {
+            row.accept(id);
+        }
+    }
+
+    private static String building(int id) {
+        return "House " + id;
+    }
+
+    private static String street(int id) {
+        return new String(STREETS[id % STREETS.length] + " " + id % 500);
+    }
+
+    private static String town(int id) {
+        return new String(TOWNS[id % TOWNS.length]);
+    }
+
+    // about 3,000 outward codes, as in a national dataset
+    private static String postcode(int id) {
+        return "" + letter(id / 7) + letter(id / 13) + id % 120 + ' ' + id % 10 + letter(id / 3) + letter(id);
+    }
+
+    private static char letter(int n) {
+        return (char) ('A' + n % 26);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
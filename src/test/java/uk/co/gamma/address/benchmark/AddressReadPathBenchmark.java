@@ -0,0 +1,106 @@
+package uk.co.gamma.address.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.gamma.address.AddressLookupApplication;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+import uk.co.gamma.address.model.mapper.AddressMapper;
+import uk.co.gamma.address.service.AddressBulkService;
+
+/**
+ * Compares reading addresses as managed entities mapped to {@link Address}, the previous read path, with reading
+ * them as {@link Address} constructor projections in a read-only transaction. Run with the GC profiler, as
+ * {@link #main(String[])} does, to compare the allocation rate as well as the latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AddressReadPathBenchmark {
+
+    private static final String[] TOWNS = {"Newbury", "Reading", "London", "Manchester", "Leeds", "Bristol", "Oxford", "Swindon"};
+
+    @Param("10000")
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private AddressRepository addressRepository;
+    private AddressMapper addressMapper;
+    private TransactionTemplate transaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(AddressLookupApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:addressReadPathBenchmark", "logging.level.root=WARN")
+                .run();
+        addressRepository = context.getBean(AddressRepository.class);
+        addressMapper = context.getBean(AddressMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        List<Address> addresses = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            addresses.add(new Address(null, Integer.toString(i % 200), "Street " + i % 1000, TOWNS[i % TOWNS.length], "RG14 " + i % 10 + "BY"));
+        }
+        context.getBean(AddressBulkService.class).createAll(addresses);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Address> allAsMappedEntities() {
+        return transaction.execute(status -> addressMapper.entityToModel(addressRepository.findAll()));
+    }
+
+    @Benchmark
+    public List<Address> allAsProjections() {
+        return addressRepository.findAddresses();
+    }
+
+    @Benchmark
+    public List<Address> postcodeAsMappedEntities() {
+        return transaction.execute(status -> addressMapper.entityToModel(addressRepository.findByPostcodeIgnoreCase("RG14 5BY")));
+    }
+
+    @Benchmark
+    public List<Address> postcodeAsProjections() {
+        return readOnlyTransaction.execute(status -> addressRepository.findAddressesByPostcodeKey("RG14 5BY"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AddressReadPathBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
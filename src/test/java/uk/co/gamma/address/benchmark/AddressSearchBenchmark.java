@@ -0,0 +1,87 @@
+package uk.co.gamma.address.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.co.gamma.address.index.InvertedIndex;
+import uk.co.gamma.address.index.Tokenizer;
+
+/**
+ * Measures query latency of the {@link InvertedIndex} behind {@code GET /addresses/search} over one million addresses.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AddressSearchBenchmark {
+
+    private static final String[] BUILDINGS = {"House", "Court", "Lodge", "Cottage", "Mill", "Barn", "Hall", "Farm"};
+    private static final String[] STREETS = {"Kings", "Queens", "Station", "Church", "Mill", "Castle", "Park", "Victoria", "Albert", "Bridge",
+        "High", "London", "Manor", "Green", "School", "North", "South", "West", "East", "New"};
+    private static final String[] STREET_TYPES = {"Road", "Street", "Lane", "Avenue", "Close", "Way"};
+    private static final String[] TOWNS = {"Newbury", "Reading", "London", "Manchester", "Leeds", "Bristol", "Oxford", "Henley-On-Thames",
+        "Earley", "Thatcham", "Basingstoke", "Swindon", "Slough", "Maidenhead", "Bracknell", "Wokingham"};
+    private static final String[] AREAS = {"RG", "M", "EC", "SW", "LS", "BS", "OX", "SL", "SN"};
+
+    @Param("1000000")
+    private int addresses;
+
+    private InvertedIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new InvertedIndex();
+        for (int id = 1; id <= addresses; id++) {
+            String building = (id % 300) + " " + BUILDINGS[id % BUILDINGS.length];
+            String street = STREETS[id / 7 % STREETS.length] + " " + STREET_TYPES[id / 3 % STREET_TYPES.length];
+            String town = TOWNS[id / 11 % TOWNS.length];
+            String postcode = AREAS[id % AREAS.length] + (id / 9 % 40 + 1) + " " + (id / 360 % 10) + (char) ('A' + id / 3600 % 26) + (char) ('A' + id / 93600 % 26);
+            index.add(id, Tokenizer.tokenize(building, street, town, postcode));
+        }
+    }
+
+    @Benchmark
+    public int[] singleCommonTerm() {
+        return index.search(List.of("road"), List.of());
+    }
+
+    @Benchmark
+    public int[] twoTermAnd() {
+        return index.search(List.of("station", "newbury"), List.of());
+    }
+
+    @Benchmark
+    public int[] threeTermAndWithRareTerm() {
+        return index.search(List.of("kings", "road", "rg14"), List.of());
+    }
+
+    @Benchmark
+    public int[] termAndPrefix() {
+        return index.search(List.of("reading"), List.of("vic"));
+    }
+
+    @Benchmark
+    public int[] shortPrefix() {
+        return index.search(List.of(), List.of("ma"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AddressSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
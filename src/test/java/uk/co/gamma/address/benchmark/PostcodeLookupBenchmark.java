@@ -0,0 +1,125 @@
+package uk.co.gamma.address.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.co.gamma.address.model.Postcodes;
+
+/**
+ * Compares the previous {@code upper(postcode) = upper(?)} lookup with the equality lookup on the indexed
+ * {@code postcode_key} column, against an H2 address table of one million rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PostcodeLookupBenchmark {
+
+    private static final String[] AREAS = {"RG", "M", "EC", "SW", "LS", "B", "NE", "CF"};
+    private static final int DISTINCT_POSTCODES = 50_000;
+
+    @Param("1000000")
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement ignoreCaseLookup;
+    private PreparedStatement postcodeKeyLookup;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:postcodeLookupBenchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE address (id INT AUTO_INCREMENT PRIMARY KEY, building VARCHAR(50) NOT NULL, street VARCHAR(50) NOT NULL,"
+                    + " town VARCHAR(50) NOT NULL, postcode VARCHAR(50) NOT NULL, postcode_key VARCHAR(50) NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO address (building, street, town, postcode, postcode_key) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                String postcode = postcode(i % DISTINCT_POSTCODES);
+                insert.setString(1, Integer.toString(i % 200));
+                insert.setString(2, "Street " + i % 1000);
+                insert.setString(3, "Town " + i % 50);
+                insert.setString(4, i % 2 == 0 ? postcode : postcode.toLowerCase());
+                insert.setString(5, Postcodes.normalize(postcode));
+                insert.addBatch();
+                if (i % 10_000 == 9_999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX idx_address_postcode_key ON address (postcode_key)");
+        }
+        connection.commit();
+        ignoreCaseLookup = connection.prepareStatement("SELECT id FROM address WHERE UPPER(postcode) = UPPER(?)");
+        postcodeKeyLookup = connection.prepareStatement("SELECT id FROM address WHERE postcode_key = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int findByPostcodeIgnoreCase() throws SQLException {
+        ignoreCaseLookup.setString(1, nextPostcode());
+        return count(ignoreCaseLookup);
+    }
+
+    @Benchmark
+    public int findByPostcodeKey() throws SQLException {
+        postcodeKeyLookup.setString(1, Postcodes.normalize(nextPostcode()));
+        return count(postcodeKeyLookup);
+    }
+
+    private String nextPostcode() {
+        next = (next + 7919) % DISTINCT_POSTCODES;
+        return postcode(next);
+    }
+
+    private static int count(PreparedStatement lookup) throws SQLException {
+        int count = 0;
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String postcode(int n) {
+        return "%s%d %d%c%c".formatted(AREAS[n % AREAS.length], n / 8 % 40 + 1, n / 320 % 10, (char) ('A' + n / 3200 % 26), (char) ('A' + n / 83200 % 26));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PostcodeLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
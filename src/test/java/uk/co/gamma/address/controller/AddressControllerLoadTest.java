@@ -0,0 +1,78 @@
+package uk.co.gamma.address.controller;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.server.LocalServerPort;
+import uk.co.gamma.address.service.BlacklistSnapshot;
+import uk.co.gamma.address.service.PostCodeBlacklistService;
+
+/**
+ * Compares the throughput of the blocking and the asynchronous list endpoints while every blacklist check is slow.
+ * Tomcat is limited to a few threads so that the blocking endpoint saturates it. Run with {@code mvn verify -Pload-test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=8",
+        "address.async.max-threads=64"
+})
+class AddressControllerLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(AddressControllerLoadTest.class);
+
+    private static final int REQUESTS = 128;
+    private static final long SLOW_BLACKLIST_MILLIS = 250;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private PostCodeBlacklistService postCodeBlacklistService;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @DisplayName("listAsync() - Given a slow blacklist, then the async endpoint serves more requests per second than the blocking one")
+    @Test
+    void listAsync_when_blacklistSlow_then_higherThroughputThanList() throws Exception {
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willAnswer(invocation -> {
+            Thread.sleep(SLOW_BLACKLIST_MILLIS);
+            return new BlacklistSnapshot(1, List.of(), Instant.now());
+        });
+
+        double blocking = throughput("/addresses?postcode=RG9%204BB");
+        double async = throughput("/addresses/async?postcode=RG9%204BB");
+
+        logger.info("GET /addresses: {} requests/s, GET /addresses/async: {} requests/s", "%.1f".formatted(blocking), "%.1f".formatted(async));
+        then(async).isGreaterThan(blocking * 2);
+    }
+
+    private double throughput(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:%d%s".formatted(port, path))).GET().build();
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        then(responses).allMatch(response -> response.join().statusCode() == 200);
+        return REQUESTS / seconds;
+    }
+}
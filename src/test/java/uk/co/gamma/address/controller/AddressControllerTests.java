@@ -2,21 +2,52 @@ package uk.co.gamma.address.controller;
 
 import static org.assertj.core.api.BDDAssertions.then;
 import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncEvent;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.BDDMockito;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import uk.co.gamma.address.config.AddressProperties;
 import uk.co.gamma.address.exception.AddressNotFoundException;
+import uk.co.gamma.address.exception.AddressReadRejectedException;
+import uk.co.gamma.address.exception.BlackListReadingException;
+import uk.co.gamma.address.exception.InvalidCursorException;
 import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.AddressPage;
+import uk.co.gamma.address.model.BulkAddressResult;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.service.AddressBulkService;
+import uk.co.gamma.address.service.AddressEtags;
+import uk.co.gamma.address.service.AddressExportService;
+import uk.co.gamma.address.service.AddressImportService;
 import uk.co.gamma.address.service.AddressService;
 import uk.co.gamma.address.service.BlackListService;
+import uk.co.gamma.address.service.SerializedAddressListing;
 
 @ExtendWith(MockitoExtension.class)
 class AddressControllerTests {
@@ -27,18 +58,40 @@ class AddressControllerTests {
     @Mock
     private BlackListService blackListService;
 
-    @InjectMocks
+    @Mock
+    private AddressExportService addressExportService;
+
+    @Mock
+    private AddressBulkService addressBulkService;
+
+    @Mock
+    private AddressImportService addressImportService;
+
+    @Mock
+    private SerializedAddressListing serializedAddressListing;
+
+    @Mock
+    private AddressEtags addressEtags;
+
     private AddressController addressController;
 
+    @BeforeEach
+    void setup() {
+        lenient().when(addressEtags.forListing(anyBoolean())).thenReturn("\"v1\"");
+        lenient().when(addressEtags.forAddress(any(Address.class))).thenReturn("\"v1-1\"");
+        addressController = new AddressController(addressService, addressExportService, addressBulkService, addressImportService, serializedAddressListing,
+                addressEtags, Runnable::run, new AddressProperties());
+    }
+
     @DisplayName("list() - Given no addresses, then an empty list is returned")
     @Test
     void list_when_noAddresses_then_returnEmptyList() {
 
         given(addressService.getAll(false)).willReturn(List.of());
 
-        List<Address> response = addressController.list(null, false);
+        ResponseEntity<?> response = addressController.list(null, false, null, null);
 
-        then(response).isEmpty();
+        then(response.getBody()).asList().isEmpty();
     }
 
     @DisplayName("list() - Given addresses, then the full list is returned")
@@ -53,9 +106,9 @@ class AddressControllerTests {
 
         given(addressService.getAll(false)).willReturn(expected);
 
-        List<Address> actual = addressController.list(null, false);
+        ResponseEntity<?> actual = addressController.list(null, false, null, null);
 
-        then(actual).containsExactlyElementsOf(expected);
+        then(actual.getBody()).asList().containsExactlyElementsOf(expected);
     }
 
     @DisplayName("list(postcode) - Given addresses are present with postcode, then the matching list is returned")
@@ -68,9 +121,196 @@ class AddressControllerTests {
 
         given(addressService.getByPostcode("RG14 5BY", true)).willReturn(expected);
 
-        List<Address> actual = addressController.list("RG14 5BY", true);
+        ResponseEntity<?> actual = addressController.list("RG14 5BY", true, null, null);
 
-        then(actual).containsExactlyElementsOf(expected);
+        then(actual.getBody()).asList().containsExactlyElementsOf(expected);
+    }
+
+    @DisplayName("list() - Given the serialized snapshot is enabled and gzip is accepted, then the compressed bytes are returned")
+    @Test
+    void list_when_serializedSnapshotAndGzipAccepted_then_compressedBytesReturned() {
+
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getListing().setSerializedSnapshot(true);
+        AddressController serializing = new AddressController(addressService, addressExportService, addressBulkService, addressImportService,
+                serializedAddressListing, addressEtags, Runnable::run, addressProperties);
+        SerializedAddressListing.Listing listing = new SerializedAddressListing.Listing(1, 1, new byte[] {'[', ']'}, new byte[] {31, -117});
+
+        given(serializedAddressListing.get(false)).willReturn(listing);
+
+        ResponseEntity<?> gzipped = serializing.list(null, false, "deflate, gzip", null);
+        ResponseEntity<?> plain = serializing.list(null, false, "gzip;q=0", null);
+
+        then(gzipped.getBody()).isSameAs(listing.gzip());
+        then(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        then(gzipped.getHeaders().getETag()).isEqualTo("\"v1-gzip\"");
+        then(plain.getHeaders().getETag()).isEqualTo("\"v1\"");
+        then(plain.getBody()).isSameAs(listing.json());
+        then(plain.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        BDDMockito.then(addressService).shouldHaveNoInteractions();
+    }
+
+    @DisplayName("list(postcode) - Given the serialized snapshot is enabled, then postcode lookups are not served from it")
+    @Test
+    void list_when_serializedSnapshotAndPostcode_then_lookedUp() {
+
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getListing().setSerializedSnapshot(true);
+        AddressController serializing = new AddressController(addressService, addressExportService, addressBulkService, addressImportService,
+                serializedAddressListing, addressEtags, Runnable::run, addressProperties);
+
+        given(addressService.getByPostcode("RG14 5BY", false)).willReturn(List.of());
+
+        ResponseEntity<?> actual = serializing.list("RG14 5BY", false, "gzip", null);
+
+        then(actual.getBody()).asList().isEmpty();
+        BDDMockito.then(serializedAddressListing).shouldHaveNoInteractions();
+    }
+
+    @DisplayName("list() - Given If-None-Match holds the current tag, then 304 is returned without reading the addresses")
+    @Test
+    void list_when_ifNoneMatchCurrent_then_notModified() {
+
+        ResponseEntity<?> actual = addressController.list(null, false, null, "\"v0\", W/\"v1\"");
+
+        then(actual.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        then(actual.getHeaders().getETag()).isEqualTo("\"v1\"");
+        BDDMockito.then(addressService).shouldHaveNoInteractions();
+    }
+
+    @DisplayName("list() - Given If-None-Match holds an old tag, then the addresses are returned with the current tag")
+    @Test
+    void list_when_ifNoneMatchStale_then_addressesReturnedWithEtag() {
+
+        given(addressService.getByPostcode("RG14 5BY", false)).willReturn(List.of());
+
+        ResponseEntity<?> actual = addressController.list("RG14 5BY", false, null, "\"v0\"");
+
+        then(actual.getStatusCode()).isEqualTo(HttpStatus.OK);
+        then(actual.getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @DisplayName("listAsync() - Given addresses, then the full list is set as the deferred result")
+    @Test
+    void listAsync_when_multipleAddresses_then_allAddressesReturned() {
+
+        List<Address> expected = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR")
+        );
+
+        given(addressService.getAll(false)).willReturn(expected);
+
+        DeferredResult<List<Address>> actual = addressController.listAsync(null, false);
+
+        then(actual.getResult()).isEqualTo(expected);
+    }
+
+    @DisplayName("listAsync(postcode) - Given the blacklist cannot be read, then the exception is set as the deferred result")
+    @Test
+    void listAsync_when_blacklistReadingFails_then_exceptionReturned() {
+
+        given(addressService.getByPostcode("RG14 5BY", false)).willThrow(new BlackListReadingException("failed"));
+
+        DeferredResult<List<Address>> actual = addressController.listAsync("RG14 5BY", false);
+
+        then(actual.getResult()).isInstanceOf(BlackListReadingException.class);
+    }
+
+    @DisplayName("listAsync() - Given the read fails with an Error, then the error is set as the deferred result")
+    @Test
+    void listAsync_when_readFailsWithError_then_errorReturned() {
+
+        given(addressService.getAll(false)).willThrow(new StackOverflowError());
+
+        DeferredResult<List<Address>> actual = addressController.listAsync(null, false);
+
+        then(actual.getResult()).isInstanceOf(StackOverflowError.class);
+    }
+
+    @DisplayName("listAsync() - Given the executor rejects the read, then AddressReadRejectedException is set as the deferred result")
+    @Test
+    void listAsync_when_executorRejects_then_AddressReadRejectedExceptionReturned() {
+
+        AddressController saturated = new AddressController(addressService, addressExportService, addressBulkService, addressImportService,
+                serializedAddressListing, addressEtags, task -> {
+                    throw new RejectedExecutionException("queue full");
+                }, new AddressProperties());
+
+        DeferredResult<List<Address>> actual = saturated.listAsync(null, false);
+
+        then(actual.getResult()).isInstanceOf(AddressReadRejectedException.class);
+        BDDMockito.then(addressService).shouldHaveNoInteractions();
+    }
+
+    @DisplayName("listAsync() - Given the request times out, then the read still in progress is interrupted")
+    @Test
+    void listAsync_when_timedOut_then_readInterrupted() throws Exception {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            given(addressService.getAll(false)).willAnswer(invocation -> {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException ie) {
+                    interrupted.countDown();
+                }
+                return List.of();
+            });
+            AddressController asynchronous = new AddressController(addressService, addressExportService, addressBulkService, addressImportService,
+                    serializedAddressListing, addressEtags, executor, new AddressProperties());
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.setAsyncSupported(true);
+            StandardServletAsyncWebRequest asyncWebRequest = new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+            WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+            asyncManager.setAsyncWebRequest(asyncWebRequest);
+
+            asyncManager.startDeferredResultProcessing(asynchronous.listAsync(null, false));
+            then(started.await(5, TimeUnit.SECONDS)).isTrue();
+            asyncWebRequest.onTimeout(new AsyncEvent(request.getAsyncContext()));
+
+            then(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("page() - Given more addresses after the page, then the next cursor is returned in a header")
+    @Test
+    void page_when_moreAddresses_then_nextCursorHeaderReturned() {
+
+        List<Address> expected = List.of(new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        given(addressService.getPage(2, 1, false)).willReturn(new AddressPage(expected, 3));
+
+        ResponseEntity<List<Address>> actual = addressController.page(1, PageCursor.encode(2), null, false);
+
+        then(actual.getBody()).isEqualTo(expected);
+        then(PageCursor.decode(actual.getHeaders().getFirst(AddressController.NEXT_CURSOR_HEADER))).isEqualTo(3);
+    }
+
+    @DisplayName("page() - Given an invalid cursor, then an InvalidCursorException is thrown")
+    @Test
+    void page_when_invalidCursor_then_InvalidCursorExceptionThrown() {
+
+        thenExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> addressController.page(10, "not-a-cursor", null, false));
+    }
+
+    @DisplayName("get(id) - Given If-None-Match holds the current tag, then 304 is returned without a body")
+    @Test
+    void get_when_ifNoneMatchCurrent_then_notModified() {
+
+        given(addressService.getById(1)).willReturn(Optional.of(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        ResponseEntity<Address> actual = addressController.get(1, "\"v1-1\"");
+
+        then(actual.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        then(actual.getBody()).isNull();
+        BDDMockito.then(addressService).should().getById(1);
     }
 
     @DisplayName("get(id) - Given an address is not present, then an AddressNotFoundException is thrown")
@@ -80,7 +320,7 @@ class AddressControllerTests {
         given(addressService.getById(1)).willReturn(Optional.empty());
 
         thenExceptionOfType(AddressNotFoundException.class)
-                .isThrownBy(() -> addressController.get(1))
+                .isThrownBy(() -> addressController.get(1, null))
                 .hasFieldOrPropertyWithValue("message", "Address with ID 1 not found");
     }
 
@@ -92,7 +332,7 @@ class AddressControllerTests {
 
         given(addressService.getById(1)).willReturn(Optional.of(expected));
 
-        Address actual = addressController.get(1);
+        Address actual = addressController.get(1, null).getBody();
 
         then(actual).isEqualTo(expected);
     }
@@ -128,4 +368,59 @@ class AddressControllerTests {
 
         BDDMockito.then(addressService).should().delete(1);
     }
-}
\ No newline at end of file
+
+    @DisplayName("postBulk() - Given a list of addresses, then one result per address is returned")
+    @Test
+    void postBulk_when_addresses_then_resultsReturned() {
+
+        List<Address> addresses = List.of(
+                new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(null, "", "Elevator Road", "Manchester", "M17 1BR"));
+        List<BulkAddressResult> expected = List.of(
+                BulkAddressResult.created(0, new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")),
+                BulkAddressResult.invalid(1, List.of("building: Building must not be empty")));
+
+        given(addressBulkService.createAll(addresses)).willReturn(expected);
+
+        List<BulkAddressResult> actual = addressController.postBulk(addresses);
+
+        then(actual).containsExactlyElementsOf(expected);
+    }
+
+    @DisplayName("lookup() - Given a list of postcodes, then the addresses of each postcode are returned")
+    @Test
+    void lookup_when_postcodes_then_addressesByPostcodeReturned() {
+
+        Map<String, List<Address>> expected = Map.of(
+                "RG14 5BY", List.of(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")),
+                "M17 1BR", List.of());
+
+        given(addressService.getByPostcodes(List.of("RG14 5BY", "M17 1BR"), false)).willReturn(expected);
+
+        Map<String, List<Address>> actual = addressController.lookup(List.of("RG14 5BY", "M17 1BR"), false);
+
+        then(actual).isEqualTo(expected);
+    }
+
+    @DisplayName("suggest() - Given a limit above the maximum, then it is capped")
+    @Test
+    void suggest_when_limitAboveMaximum_then_capped() {
+
+        List<PostcodeSuggestion> expected = List.of(new PostcodeSuggestion("RG14 5BY", 2));
+
+        given(addressService.suggest("RG14", AddressController.MAX_SUGGESTIONS, false)).willReturn(expected);
+
+        then(addressController.suggest("RG14", 1000, false)).isEqualTo(expected);
+    }
+
+    @DisplayName("search() - Given a query, then the matching addresses are returned with the limit capped")
+    @Test
+    void search_when_query_then_matchingAddressesReturned() {
+
+        List<Address> expected = List.of(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        given(addressService.search("kings ro*", AddressController.MAX_SEARCH_RESULTS, false)).willReturn(expected);
+
+        then(addressController.search("kings ro*", 500, false)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,43 @@
+package uk.co.gamma.address.index;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @DisplayName("mightContain() - Given added keys, then they are always reported as present")
+    @Test
+    void mightContain_when_keyAdded_then_true() {
+
+        BloomFilter bloomFilter = BloomFilter.create(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            bloomFilter.put("KEY " + i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            then(bloomFilter.mightContain("KEY " + i)).isTrue();
+        }
+    }
+
+    @DisplayName("mightContain() - Given keys that were never added, then the false positive rate stays near the target")
+    @Test
+    void mightContain_when_keyAbsent_then_falsePositiveRateNearTarget() {
+
+        BloomFilter bloomFilter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("PRESENT " + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bloomFilter.mightContain("ABSENT " + i)) {
+                falsePositives++;
+            }
+        }
+
+        then(falsePositives).isLessThan(300);
+        then(bloomFilter.expectedFalsePositiveRate()).isBetween(0.001, 0.03);
+    }
+}
@@ -0,0 +1,78 @@
+package uk.co.gamma.address.index;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.gamma.address.model.Address;
+
+class CompactAddressTableTest {
+
+    private static final Address NEWBURY = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+    private static final Address MALTHOUSE = new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH");
+    private static final Address LONDON = new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW");
+
+    @DisplayName("get() - Given addresses, then each is read back exactly as it was put")
+    @Test
+    void get_when_put_then_roundTrips() {
+
+        CompactAddressTable table = new CompactAddressTable();
+        Address lowerCase = new Address(4, "Queen's House", "Kings Road West", "Newbury", "rg14 5by");
+        Address unspaced = new Address(5, "Mill", "Mill Lane", "Newbury", "RG145BY");
+        Address spaced = new Address(6, "Barn", "Mill Lane", "Newbury", " RG14  5BY ");
+        List.of(NEWBURY, MALTHOUSE, LONDON, lowerCase, unspaced, spaced).forEach(table::put);
+
+        then(table.get(1)).isEqualTo(NEWBURY);
+        then(table.get(3)).isEqualTo(LONDON);
+        then(table.get(4)).isEqualTo(lowerCase);
+        then(table.get(5)).isEqualTo(unspaced);
+        then(table.get(6)).isEqualTo(spaced);
+        then(table.get(7)).isNull();
+        then(table.size()).isEqualTo(6);
+    }
+
+    @DisplayName("put(), remove() - Given ids out of order, replaced and removed, then rows stay in id order")
+    @Test
+    void put_when_outOfOrderAndReplaced_then_idOrderKept() {
+
+        CompactAddressTable table = new CompactAddressTable();
+        table.put(LONDON);
+        table.put(NEWBURY);
+        table.put(MALTHOUSE);
+        table.put(new Address(3, "Holland House", "Bury Street", "London", "ec3a 5aw"));
+
+        then(table.remove(2)).isTrue();
+        then(table.remove(2)).isFalse();
+
+        List<Address> actual = new ArrayList<>();
+        table.forEach(actual::add);
+        then(actual).containsExactly(NEWBURY, new Address(3, "Holland House", "Bury Street", "London", "ec3a 5aw"));
+    }
+
+    @DisplayName("page() - Given excluded postcodes, then the page skips them and is still filled from later rows")
+    @Test
+    void page_when_excludedPostcodes_then_skippedAndFilled() {
+
+        CompactAddressTable table = new CompactAddressTable();
+        List.of(NEWBURY, MALTHOUSE, LONDON).forEach(table::put);
+
+        then(table.page(0, 2, "RG14 7DH"::equals)).containsExactly(NEWBURY, LONDON);
+        then(table.page(1, 10, null)).containsExactly(MALTHOUSE, LONDON);
+        then(table.page(3, 10, null)).isEmpty();
+    }
+
+    @DisplayName("put() - Given more addresses than the initial capacity, then the columns grow")
+    @Test
+    void put_when_manyAddresses_then_columnsGrow() {
+
+        CompactAddressTable table = new CompactAddressTable();
+        for (int id = 1; id <= 5000; id++) {
+            table.put(new Address(id, "House " + id, "Station Road", "Reading", "RG1 " + id % 10 + "AA"));
+        }
+
+        then(table.size()).isEqualTo(5000);
+        then(table.get(4321)).isEqualTo(new Address(4321, "House 4321", "Station Road", "Reading", "RG1 1AA"));
+    }
+}
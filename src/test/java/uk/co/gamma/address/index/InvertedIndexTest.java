@@ -0,0 +1,83 @@
+package uk.co.gamma.address.index;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InvertedIndexTest {
+
+    @DisplayName("search() - Given several terms, then only documents containing all of them are returned in id order")
+    @Test
+    void search_when_multipleTerms_then_intersection() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.add(3, List.of("kings", "road", "newbury"));
+        index.add(1, List.of("kings", "road", "west", "newbury"));
+        index.add(2, List.of("elevator", "road", "manchester"));
+
+        then(index.search(List.of("road", "kings"), List.of())).containsExactly(1, 3);
+        then(index.search(List.of("road"), List.of())).containsExactly(1, 2, 3);
+        then(index.search(List.of("road", "london"), List.of())).isEmpty();
+        then(index.search(List.of(), List.of())).isEmpty();
+    }
+
+    @DisplayName("search() - Given a prefix, then documents with any term starting with it are matched")
+    @Test
+    void search_when_prefix_then_unionOfMatchingTerms() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.add(1, List.of("kings", "road"));
+        index.add(2, List.of("kingston", "road"));
+        index.add(3, List.of("king", "street"));
+        index.add(4, List.of("queens", "road"));
+
+        then(index.search(List.of(), List.of("king"))).containsExactly(1, 2, 3);
+        then(index.search(List.of("road"), List.of("king"))).containsExactly(1, 2);
+        then(index.search(List.of(), List.of("kingsw"))).isEmpty();
+    }
+
+    @DisplayName("search() - Given a rare term and a very common one, then the intersection is still exact")
+    @Test
+    void search_when_skewedPostingLists_then_exactIntersection() {
+
+        InvertedIndex index = new InvertedIndex();
+        for (int id = 0; id < 10_000; id++) {
+            index.add(id, id % 1_000 == 7 ? List.of("road", "rare") : List.of("road"));
+        }
+
+        then(index.search(List.of("rare", "road"), List.of())).containsExactly(7, 1007, 2007, 3007, 4007, 5007, 6007, 7007, 8007, 9007);
+    }
+
+    @DisplayName("remove() - Given a document is removed, then it is no longer found and empty terms are dropped")
+    @Test
+    void remove_when_documentRemoved_then_notFound() {
+
+        InvertedIndex index = new InvertedIndex();
+        index.add(5, List.of("holland", "house"));
+        index.add(2, List.of("kings", "house"));
+
+        index.remove(5, List.of("holland", "house"));
+
+        then(index.search(List.of("house"), List.of())).containsExactly(2);
+        then(index.search(List.of(), List.of("holl"))).isEmpty();
+        then(index.terms()).isEqualTo(2);
+    }
+
+    @DisplayName("search() - Given the index changes after a search, then the ids already returned do not change")
+    @Test
+    void search_when_indexChangedAfterwards_then_resultUnchanged() {
+
+        InvertedIndex index = new InvertedIndex();
+        for (int id = 1; id <= 4; id++) {
+            index.add(id, List.of("road"));
+        }
+
+        int[] found = index.search(List.of("road"), List.of());
+        index.remove(1, List.of("road"));
+        index.add(5, List.of("road"));
+
+        then(found).containsExactly(1, 2, 3, 4);
+    }
+}
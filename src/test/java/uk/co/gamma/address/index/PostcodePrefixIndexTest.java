@@ -0,0 +1,56 @@
+package uk.co.gamma.address.index;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+
+class PostcodePrefixIndexTest {
+
+    @DisplayName("complete() - Given postcodes, then the first ones starting with the prefix are returned in order")
+    @Test
+    void complete_when_postcodesWithPrefix_then_firstInOrder() {
+
+        PostcodePrefixIndex index = new PostcodePrefixIndex();
+        index.add("RG14 7DH");
+        index.add("RG1 1AA");
+        index.add("RG14 5BY");
+        index.add("RG14 5BY");
+        index.add("RH1 1AA");
+        index.add("EC3A 5AW");
+
+        then(index.complete("RG14", 10, postcode -> false)).containsExactly(
+                new PostcodeSuggestion("RG14 5BY", 2),
+                new PostcodeSuggestion("RG14 7DH", 1));
+        then(index.complete("RG", 2, postcode -> false)).extracting(PostcodeSuggestion::postcode).containsExactly("RG1 1AA", "RG14 5BY");
+        then(index.complete("Z", 10, postcode -> false)).isEmpty();
+    }
+
+    @DisplayName("complete() - Given excluded postcodes, then they are skipped and the limit is filled from the next ones")
+    @Test
+    void complete_when_excluded_then_skipped() {
+
+        PostcodePrefixIndex index = new PostcodePrefixIndex();
+        index.add("RG14 5BY");
+        index.add("RG14 7DH");
+        index.add("RG14 8AA");
+
+        then(index.complete("RG14", 2, "RG14 5BY"::equals)).extracting(PostcodeSuggestion::postcode).containsExactly("RG14 7DH", "RG14 8AA");
+    }
+
+    @DisplayName("remove() - Given the last address of a postcode is removed, then the postcode is no longer suggested")
+    @Test
+    void remove_when_lastAddressRemoved_then_postcodeDropped() {
+
+        PostcodePrefixIndex index = new PostcodePrefixIndex();
+        index.add("RG14 5BY", 2);
+
+        index.remove("RG14 5BY");
+        then(index.complete("RG14", 10, postcode -> false)).containsExactly(new PostcodeSuggestion("RG14 5BY", 1));
+
+        index.remove("RG14 5BY");
+        then(index.complete("RG14", 10, postcode -> false)).isEmpty();
+        then(index.size()).isZero();
+    }
+}
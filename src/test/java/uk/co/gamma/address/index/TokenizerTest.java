@@ -0,0 +1,17 @@
+package uk.co.gamma.address.index;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenizerTest {
+
+    @DisplayName("tokenize() - Given texts with punctuation and mixed case, then distinct lower case terms are returned in order")
+    @Test
+    void tokenize_when_mixedText_then_distinctLowerCaseTerms() {
+
+        then(Tokenizer.tokenize("King's House", "Kings Road West", null, "RG14 5BY", "Henley-On-Thames", "kings"))
+                .containsExactly("king", "s", "house", "kings", "road", "west", "rg14", "5by", "henley", "on", "thames");
+    }
+}
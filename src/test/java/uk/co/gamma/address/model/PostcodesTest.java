@@ -0,0 +1,37 @@
+package uk.co.gamma.address.model;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PostcodesTest {
+
+    @DisplayName("normalize() - Given mixed case and spacing, then an upper case single spaced key is returned")
+    @Test
+    void normalize_when_mixedCaseAndSpacing_then_canonicalKey() {
+
+        then(Postcodes.normalize("  rg14 \t 7dh ")).isEqualTo("RG14 7DH");
+        then(Postcodes.normalize(null)).isNull();
+    }
+
+    @DisplayName("hierarchy() - Given full postcodes and prefixes, then they are split into area, district, sector and unit")
+    @Test
+    void hierarchy_when_postcodeOrPrefix_then_parts() {
+
+        then(Postcodes.hierarchy("RG14 7DH")).containsExactly("RG", "14", "7", "DH");
+        then(Postcodes.hierarchy("RG147DH")).containsExactly("RG", "14", "7", "DH");
+        then(Postcodes.hierarchy("EC1A 1BB")).containsExactly("EC", "1A", "1", "BB");
+        then(Postcodes.hierarchy("RG14 7")).containsExactly("RG", "14", "7");
+        then(Postcodes.hierarchy("RG14")).containsExactly("RG", "14");
+        then(Postcodes.hierarchy("RG")).containsExactly("RG");
+    }
+
+    @DisplayName("hierarchy() - Given a value not shaped like a postcode, then no parts are returned")
+    @Test
+    void hierarchy_when_notPostcode_then_empty() {
+
+        then(Postcodes.hierarchy("NOT A POSTCODE")).isEmpty();
+        then(Postcodes.hierarchy("")).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package uk.co.gamma.address.model.db.repository;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.config.EntityCacheConfiguration;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+
+// not transactional, the second-level cache is only written when a transaction commits
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(EntityCacheConfiguration.class)
+@EnableConfigurationProperties(AddressProperties.class)
+class AddressEntityCacheTests {
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        addressRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @DisplayName("findById(id) - Given an address was read before, then it is served from the second-level cache")
+    @Test
+    void findById_when_readTwice_then_secondLevelCacheHit() {
+
+        AddressEntity saved = addressRepository.save(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        addressRepository.findById(saved.getId());
+        addressRepository.findById(saved.getId());
+
+        then(statistics.getDomainDataRegionStatistics(EntityCacheConfiguration.ADDRESS_REGION).getHitCount()).isEqualTo(2);
+    }
+
+    @DisplayName("findAddressesByPostcodeKey(postcodeKey) - Given the same postcode is read twice, then the second read is served from the query cache")
+    @Test
+    void findAddressesByPostcodeKey_when_readTwice_then_queryCacheHit() {
+
+        addressRepository.save(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        addressRepository.findAddressesByPostcodeKey("RG14 5BY");
+        addressRepository.findAddressesByPostcodeKey("RG14 5BY");
+
+        then(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @DisplayName("updateAddress(...), deleteAddress(id) - Given cached reads, then the next reads see the write")
+    @Test
+    void updateAddress_when_cached_then_nextReadSeesWrite() {
+
+        AddressEntity saved = addressRepository.save(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        addressRepository.findById(saved.getId());
+        addressRepository.findAddressesByPostcodeKey("RG14 5BY");
+
+        addressRepository.updateAddress(saved.getId(), "Queen's House", "Kings Road West", "Newbury", "RG14 5BY", "RG14 5BY", false);
+
+        then(addressRepository.findById(saved.getId())).get().extracting(AddressEntity::getBuilding).isEqualTo("Queen's House");
+        then(addressRepository.findAddressesByPostcodeKey("RG14 5BY")).extracting(Address::building).containsExactly("Queen's House");
+
+        addressRepository.deleteAddress(saved.getId());
+
+        then(addressRepository.findById(saved.getId())).isEmpty();
+        then(addressRepository.findAddressesByPostcodeKey("RG14 5BY")).isEmpty();
+    }
+}
@@ -5,16 +5,27 @@ import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.config.EntityCacheConfiguration;
+import uk.co.gamma.address.model.Address;
 import uk.co.gamma.address.model.db.entity.AddressEntity;
 
 @DataJpaTest
+@Import(EntityCacheConfiguration.class)
+@EnableConfigurationProperties(AddressProperties.class)
 class AddressRepositoryTests {
 
     @Autowired
@@ -113,6 +124,109 @@ class AddressRepositoryTests {
         then(actual).containsExactlyElementsOf(expected);
     }
 
+    @DisplayName("findAddressesByPostcodeKey(postcodeKey) - Given addresses with differently written postcodes, then all addresses with the canonical postcode are returned")
+    @Test
+    void findAddressesByPostcodeKey_when_postcodeWrittenDifferently_then_matchingList() {
+
+        List<AddressEntity> expected = List.of(
+                new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new AddressEntity("Queen's House", "Kings Road West", "Newbury", " rg14  5by")
+        );
+
+        expected.forEach(address -> entityManager.persist(address));
+        entityManager.persist(new AddressEntity("The Malthouse", "Elevator Road", "Manchester", "M17 1BR"));
+
+        List<Address> actual = addressRepository.findAddressesByPostcodeKey("RG14 5BY");
+
+        then(actual).extracting(Address::id).containsExactly(expected.get(0).getId(), expected.get(1).getId());
+        then(actual.get(1).postcode()).isEqualTo(expected.get(1).getPostcode());
+    }
+
+    @DisplayName("findAddressesByPostcodeKeyIn(postcodeKeys) - Given addresses, then the addresses of every listed postcode are returned")
+    @Test
+    void findAddressesByPostcodeKeyIn_when_multiplePostcodes_then_matchingList() {
+
+        List<AddressEntity> expected = List.of(
+                new AddressEntity("King's House", "Kings Road West", "Newbury", "rg14 5by"),
+                new AddressEntity("The Malthouse", "Elevator Road", "Manchester", "M17 1BR")
+        );
+
+        expected.forEach(address -> entityManager.persist(address));
+        entityManager.persist(new AddressEntity("Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        List<Address> actual = addressRepository.findAddressesByPostcodeKeyIn(List.of("RG14 5BY", "M17 1BR", "SW1A 1AA"));
+
+        then(actual).extracting(Address::id).containsExactlyInAnyOrder(expected.get(0).getId(), expected.get(1).getId());
+    }
+
+    @DisplayName("streamPostcodeKeys(), countPostcodeKeys() - Given addresses sharing a postcode, then each canonical postcode is returned once")
+    @Test
+    void streamPostcodeKeys_when_sharedPostcode_then_distinctKeys() {
+
+        entityManager.persist(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        entityManager.persist(new AddressEntity("Queen's House", "Kings Road West", "Newbury", "rg14 5by"));
+        entityManager.persist(new AddressEntity("The Malthouse", "Elevator Road", "Manchester", "M17 1BR"));
+
+        try (Stream<String> actual = addressRepository.streamPostcodeKeys()) {
+            then(actual).containsExactlyInAnyOrder("RG14 5BY", "M17 1BR");
+        }
+        then(addressRepository.countPostcodeKeys()).isEqualTo(2);
+    }
+
+    @DisplayName("markBlacklisted(), clearBlacklisted() - Given flagged postcodes, then filtered reads leave their addresses out")
+    @Test
+    void markBlacklisted_when_postcodesFlagged_then_leftOutOfFilteredReads() {
+
+        AddressEntity newbury = entityManager.persist(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        AddressEntity blacklisted = entityManager.persist(new AddressEntity("The Malthouse", "Elevator Road", "Newbury", "rg14 7dh"));
+        AddressEntity london = entityManager.persist(new AddressEntity("Holland House", "Bury Street", "London", "EC3A 5AW"));
+        entityManager.flush();
+
+        then(addressRepository.markBlacklisted(List.of("RG14 7DH"))).isEqualTo(1);
+        entityManager.clear();
+
+        then(addressRepository.findUnblacklistedAddresses()).extracting(Address::id).containsExactly(newbury.getId(), london.getId());
+        then(addressRepository.findUnblacklistedAddressesAfter(newbury.getId(), PageRequest.of(0, 10)))
+                .extracting(Address::id).containsExactly(london.getId());
+
+        then(addressRepository.clearBlacklisted()).isEqualTo(1);
+        entityManager.clear();
+
+        then(addressRepository.findUnblacklistedAddresses()).extracting(Address::id).contains(blacklisted.getId());
+    }
+
+    @DisplayName("findAddressesAfter(id, pageable) - Given addresses, then the page after the id is returned in id order")
+    @Test
+    void findAddressesAfter_when_multipleAddresses_then_pageAfterIdReturned() {
+
+        List<AddressEntity> addresses = List.of(
+                new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new AddressEntity("The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
+                new AddressEntity("Holland House", "Bury Street", "London", "EC3A 5AW"),
+                new AddressEntity("Queen's House", "Kings Road West", "Newbury", "RG14 5BY")
+        );
+
+        addresses.forEach(address -> entityManager.persist(address));
+
+        List<Address> actual = addressRepository.findAddressesAfter(addresses.get(0).getId(), PageRequest.of(0, 2));
+
+        then(actual).extracting(Address::id).containsExactly(addresses.get(1).getId(), addresses.get(2).getId());
+    }
+
+    @DisplayName("streamAddresses() - Given an address, then it is read as a projection the persistence context does not hold")
+    @Test
+    void streamAddresses_when_addressPresent_then_unmanagedProjection() {
+
+        AddressEntity persisted = entityManager.persist(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        entityManager.flush();
+        entityManager.clear();
+
+        try (Stream<Address> addresses = addressRepository.streamAddresses()) {
+            then(addresses).containsExactly(new Address(persisted.getId(), "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        }
+        then(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @DisplayName("findById(id) - Given an address is not present with the ID, then an empty optional is returned")
     @Test
     void findById_when_addressNotPresent_then_empty() {
@@ -182,7 +296,7 @@ class AddressRepositoryTests {
     void save_when_invalidAddressSaved_then_DataIntegrityViolationExceptionThrown() {
 
         thenExceptionOfType(DataIntegrityViolationException.class)
-                .isThrownBy(() -> addressRepository.save(new AddressEntity(null, null, null, null)));
+                .isThrownBy(() -> addressRepository.saveAndFlush(new AddressEntity(null, null, null, null)));
     }
 
 
@@ -198,4 +312,49 @@ class AddressRepositoryTests {
 
         then(addressRepository.findById(expected.getId())).isEmpty();
     }
+
+    @DisplayName("updateAddress(...) - Given an address is present, then it is overwritten and its version bumped")
+    @Test
+    void updateAddress_when_addressPresent_then_overwrittenAndVersionBumped() {
+
+        AddressEntity existing = entityManager.persist(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        entityManager.flush();
+        entityManager.clear();
+
+        int actual = addressRepository.updateAddress(existing.getId(), "Queen's House", "Kings Road West", "Newbury", "rg14 7dh", "RG14 7DH", true);
+        entityManager.clear();
+
+        then(actual).isEqualTo(1);
+        AddressEntity updated = entityManager.find(AddressEntity.class, existing.getId());
+        then(updated.getBuilding()).isEqualTo("Queen's House");
+        then(updated.getPostcodeKey()).isEqualTo("RG14 7DH");
+        then(updated.isBlacklisted()).isTrue();
+        then(updated.getVersion()).isEqualTo(existing.getVersion() + 1);
+        then(addressRepository.updateAddress(existing.getId() + 1, "Queen's House", "Kings Road West", "Newbury", "RG14 7DH", "RG14 7DH", true)).isZero();
+    }
+
+    @DisplayName("deleteAddress(id) - Given an address is present, then it is deleted and the count tells whether a row was")
+    @Test
+    void deleteAddress_when_addressPresent_then_deleted() {
+
+        AddressEntity existing = entityManager.persist(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        entityManager.flush();
+        entityManager.clear();
+
+        then(addressRepository.deleteAddress(existing.getId())).isEqualTo(1);
+        then(addressRepository.deleteAddress(existing.getId())).isZero();
+        then(addressRepository.findById(existing.getId())).isEmpty();
+    }
+
+    @DisplayName("saveAndFlush(address) - Given the row was written since the address was read, then the update is rejected")
+    @Test
+    void saveAndFlush_when_rowWrittenSinceRead_then_optimisticLockingFailure() {
+
+        AddressEntity existing = entityManager.persistFlushFind(new AddressEntity("King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        addressRepository.updateAddress(existing.getId(), "The Malthouse", "Kings Road West", "Newbury", "RG14 5BY", "RG14 5BY", false);
+
+        existing.setBuilding("Queen's House");
+
+        thenExceptionOfType(ObjectOptimisticLockingFailureException.class).isThrownBy(() -> addressRepository.saveAndFlush(existing));
+    }
 }
@@ -0,0 +1,131 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.BulkAddressResult;
+import uk.co.gamma.address.model.BulkAddressResult.Status;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+import uk.co.gamma.address.model.mapper.AddressMapper;
+
+@ExtendWith(MockitoExtension.class)
+class AddressBulkServiceTest {
+
+    private static final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private final AddressMapper addressMapper = Mappers.getMapper(AddressMapper.class);
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private AddressBulkService addressBulkService;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        lenient().doAnswer(invocation -> {
+            invocation.<AddressEntity>getArgument(0).setId(nextId.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(AddressEntity.class));
+
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getBulk().setBatchSize(25);
+        addressProperties.getBulk().setChunkSize(2);
+        addressBulkService = new AddressBulkService(addressMapper, entityManager, transactionManager, validator, addressProperties,
+                new BlacklistFlags(null, null, transactionManager, Runnable::run, addressProperties), List.of());
+    }
+
+    @DisplayName("createAll() - Given valid addresses, then they are written in chunks with the configured batch size and returned with ids")
+    @Test
+    void createAll_when_validAddresses_then_createdInChunks() {
+
+        List<Address> addresses = List.of(
+                new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(null, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
+                new Address(null, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        List<BulkAddressResult> actual = addressBulkService.createAll(addresses);
+
+        then(actual).extracting(BulkAddressResult::status).containsOnly(Status.CREATED);
+        then(actual).extracting(result -> result.address().id()).containsExactly(1, 2, 3);
+        then(actual).extracting(BulkAddressResult::index).containsExactly(0, 1, 2);
+        verify(session, times(2)).setJdbcBatchSize(25);
+        verify(entityManager, times(2)).flush();
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @DisplayName("createAll() - Given an invalid address, then it is reported as invalid and the others are created")
+    @Test
+    void createAll_when_invalidAddress_then_invalidResultAndOthersCreated() {
+
+        List<Address> addresses = List.of(
+                new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(7, "", "Elevator Road", "Manchester", "M17 1BR"));
+
+        List<BulkAddressResult> actual = addressBulkService.createAll(addresses);
+
+        then(actual.get(0).status()).isEqualTo(Status.CREATED);
+        then(actual.get(1).status()).isEqualTo(Status.INVALID);
+        then(actual.get(1).errors()).hasSize(2).anyMatch(error -> error.startsWith("building"));
+        verify(entityManager, times(1)).persist(any(AddressEntity.class));
+    }
+
+    @DisplayName("createAll() - Given only invalid addresses, then nothing is written")
+    @Test
+    void createAll_when_noValidAddresses_then_nothingWritten() {
+
+        List<BulkAddressResult> actual = addressBulkService.createAll(List.of(new Address(null, "King's House", "Kings Road West", "Newbury", null)));
+
+        then(actual).singleElement().extracting(BulkAddressResult::status).isEqualTo(Status.INVALID);
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @DisplayName("createAll() - Given a chunk fails to be stored, then its addresses are reported as failed and the next chunk is created")
+    @Test
+    void createAll_when_chunkFails_then_chunkFailedAndNextChunkCreated() {
+
+        willThrow(new PersistenceException("constraint violated")).willAnswer(invocation -> null).given(entityManager).flush();
+
+        List<Address> addresses = List.of(
+                new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(null, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
+                new Address(null, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        List<BulkAddressResult> actual = addressBulkService.createAll(addresses);
+
+        then(actual).extracting(BulkAddressResult::status).containsExactly(Status.FAILED, Status.FAILED, Status.CREATED);
+        then(actual.get(0).errors()).isNotEmpty();
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,107 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+
+class AddressCacheTest {
+
+    private static final Address ADDRESS = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AddressCache addressCache;
+
+    @BeforeEach
+    void setup() {
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getCache().setMaximumSize(100);
+        addressProperties.getCache().setTtl(Duration.ofMinutes(10));
+        addressProperties.getCache().setNegativeTtl(Duration.ofSeconds(30));
+        addressCache = new AddressCache(addressProperties, meterRegistry, nanos::get);
+    }
+
+    private Supplier<Optional<Address>> loading(Optional<Address> address) {
+        return () -> {
+            loads.incrementAndGet();
+            return address;
+        };
+    }
+
+    @DisplayName("get() - Given an id read twice, then it is loaded once and the hit and miss are counted")
+    @Test
+    void get_when_readTwice_then_loadedOnceAndMetricsCounted() {
+
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).contains(ADDRESS);
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).contains(ADDRESS);
+
+        then(loads).hasValue(1);
+        then(meterRegistry.get("cache.gets").tag("cache", AddressCache.CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        then(meterRegistry.get("cache.gets").tag("cache", AddressCache.CACHE_NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("get() - Given a missing id, then its absence is cached for the negative ttl only")
+    @Test
+    void get_when_missingId_then_cachedForNegativeTtl() {
+
+        addressCache.get(1, loading(Optional.empty()));
+        nanos.addAndGet(Duration.ofSeconds(29).toNanos());
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).isEmpty();
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).contains(ADDRESS);
+        then(loads).hasValue(2);
+    }
+
+    @DisplayName("get() - Given an address older than the ttl, then it is loaded again")
+    @Test
+    void get_when_olderThanTtl_then_reloaded() {
+
+        addressCache.get(1, loading(Optional.of(ADDRESS)));
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        addressCache.get(1, loading(Optional.of(ADDRESS)));
+
+        then(loads).hasValue(2);
+    }
+
+    @DisplayName("created(), updated(), deleted() - Given writes, then reads see the new state")
+    @Test
+    void changes_when_addressesWritten_then_cacheCoherent() {
+
+        addressCache.get(1, loading(Optional.empty()));
+        addressCache.created(ADDRESS);
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).contains(ADDRESS);
+
+        Address moved = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 7DH");
+        addressCache.updated(ADDRESS, moved);
+        then(addressCache.get(1, loading(Optional.of(ADDRESS)))).contains(moved);
+
+        addressCache.deleted(moved);
+        then(addressCache.get(1, loading(Optional.empty()))).isEmpty();
+        then(loads).hasValue(3);
+    }
+
+    @DisplayName("get() - Given more ids than the maximum size, then entries are evicted and counted")
+    @Test
+    void get_when_moreIdsThanMaximumSize_then_evicted() {
+
+        for (int id = 0; id < 500; id++) {
+            addressCache.get(id, loading(Optional.empty()));
+        }
+
+        then(addressCache.size()).isLessThanOrEqualTo(100);
+        then(meterRegistry.get("cache.evictions").tag("cache", AddressCache.CACHE_NAME).functionCounter().count()).isPositive();
+    }
+}
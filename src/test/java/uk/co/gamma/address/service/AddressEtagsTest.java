@@ -0,0 +1,88 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.model.Address;
+
+@ExtendWith(MockitoExtension.class)
+class AddressEtagsTest {
+
+    private static final Address ADDRESS = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+
+    @Mock
+    private PostCodeBlacklistService postCodeBlacklistService;
+
+    private final AddressDatasetVersion addressDatasetVersion = new AddressDatasetVersion();
+    private AddressEtags addressEtags;
+
+    @BeforeEach
+    void setup() {
+        addressEtags = new AddressEtags(addressDatasetVersion, postCodeBlacklistService, "e");
+    }
+
+    @DisplayName("forListing() - Given an address is written, then the tag changes")
+    @Test
+    void forListing_when_written_then_tagChanges() {
+
+        String before = addressEtags.forListing(true);
+        addressDatasetVersion.updated(ADDRESS, ADDRESS);
+
+        then(addressEtags.forListing(true)).isEqualTo("\"e-1-all\"").isNotEqualTo(before);
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("forListing() - Given blacklisted addresses are left out, then the blacklist version is part of the tag")
+    @Test
+    void forListing_when_blacklistExcluded_then_blacklistVersionInTag() {
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(
+                new BlacklistSnapshot(3, List.of(), Instant.now()), new BlacklistSnapshot(4, List.of(), Instant.now()));
+
+        then(addressEtags.forListing(false)).isEqualTo("\"e-0-3\"");
+        then(addressEtags.forListing(false)).isEqualTo("\"e-0-4\"");
+    }
+
+    @DisplayName("forAddress() - Given other addresses are written, then the tag only changes with the address")
+    @Test
+    void forAddress_when_otherAddressesWritten_then_tagFollowsAddress() {
+
+        String before = addressEtags.forAddress(ADDRESS);
+        addressDatasetVersion.updated(ADDRESS, ADDRESS);
+
+        then(addressEtags.forAddress(ADDRESS)).isEqualTo(before);
+        then(addressEtags.forAddress(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BZ"))).isNotEqualTo(before);
+        then(addressEtags.forAddress(new Address(2, "King's House", "Kings Road West", "Newbury", "RG14 5BY"))).isNotEqualTo(before);
+        then(before).startsWith("\"").endsWith("\"");
+    }
+
+    @DisplayName("forAddress() - Given an address, then the blacklist is not read")
+    @Test
+    void forAddress_when_tagged_then_blacklistNotRead() {
+
+        addressEtags.forAddress(ADDRESS);
+
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("matches() - Given If-None-Match values, then strong, weak, listed and wildcard tags match")
+    @Test
+    void matches_when_ifNoneMatch_then_weakComparison() {
+
+        then(AddressEtags.matches(null, "\"a\"")).isFalse();
+        then(AddressEtags.matches("\"a\"", "\"a\"")).isTrue();
+        then(AddressEtags.matches("W/\"a\"", "\"a\"")).isTrue();
+        then(AddressEtags.matches("\"b\", \"a\"", "\"a\"")).isTrue();
+        then(AddressEtags.matches("*", "\"a\"")).isTrue();
+        then(AddressEtags.matches("\"b\"", "\"a\"")).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.exception.BlackListReadingException;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.Zone;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AddressExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PostCodeBlacklistService postCodeBlacklistService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AddressExportService addressExportService;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        addressExportService = new AddressExportService(addressRepository, postCodeBlacklistService, transactionManager, objectMapper);
+    }
+
+    @DisplayName("export() - Given addresses and include_blacklisted flag false, then one line per non-blacklisted address is written")
+    @Test
+    void export_when_blacklistedAddresses_then_oneLinePerAllowedAddress() throws IOException, InterruptedException {
+
+        List<Address> addresses = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH"),
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(new BlacklistSnapshot(1, List.of(new Zone("rg14 7dh")), Instant.now()));
+        given(addressRepository.streamAddresses()).willReturn(addresses.stream());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        addressExportService.export(false).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        then(lines).hasSize(2);
+        then(objectMapper.readValue(lines[0], Address.class)).isEqualTo(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        then(objectMapper.readValue(lines[1], Address.class)).isEqualTo(new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+    }
+
+    @DisplayName("export() - Given include_blacklisted flag true, then the blacklist is not read")
+    @Test
+    void export_when_includeBlacklisted_then_blacklistNotRead() throws IOException, InterruptedException {
+
+        given(addressRepository.streamAddresses()).willReturn(Stream.of(new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        addressExportService.export(true).writeTo(out);
+
+        then(out.toString(StandardCharsets.UTF_8)).endsWith("\n").contains("RG14 7DH");
+        verify(postCodeBlacklistService, times(0)).snapshotOrThrow();
+    }
+
+    @DisplayName("export() - Given the blacklist cannot be read, then BlackListReadingException is thrown before anything is written")
+    @Test
+    void export_when_blacklistFails_then_BlackListReadingExceptionThrown() throws IOException, InterruptedException {
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY));
+
+        thenExceptionOfType(BlackListReadingException.class).isThrownBy(() -> addressExportService.export(false));
+    }
+}
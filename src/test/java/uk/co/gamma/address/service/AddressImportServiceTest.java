@@ -0,0 +1,160 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.validation.Validation;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.exception.InvalidCsvException;
+import uk.co.gamma.address.model.AddressImportReport;
+import uk.co.gamma.address.model.AddressImportReport.LineError;
+import uk.co.gamma.address.model.db.entity.AddressEntity;
+import uk.co.gamma.address.model.mapper.AddressMapper;
+
+@ExtendWith(MockitoExtension.class)
+class AddressImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Session session;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AddressProperties addressProperties = new AddressProperties();
+    private AddressImportService addressImportService;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        lenient().doAnswer(invocation -> {
+            invocation.<AddressEntity>getArgument(0).setId(nextId.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(AddressEntity.class));
+
+        addressProperties.getCsvImport().setChunkSize(2);
+        addressProperties.getCsvImport().setMaxPendingChunks(1);
+        AddressBulkService addressBulkService = new AddressBulkService(Mappers.getMapper(AddressMapper.class), entityManager, transactionManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), addressProperties,
+                new BlacklistFlags(null, null, transactionManager, Runnable::run, addressProperties), List.of());
+        addressImportService = new AddressImportService(addressBulkService, Runnable::run, addressProperties);
+    }
+
+    private static InputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("importCsv() - Given a valid CSV, then every line is imported in chunks")
+    @Test
+    void importCsv_when_validCsv_then_allLinesImported() throws IOException {
+
+        AddressImportReport actual = addressImportService.importCsv(csv(
+                "building,street,town,postcode",
+                "5,Henley Gate,Henley-On-Thames,RG9 4BB",
+                "1A,Hilbury Road,Earley,RG6 5PU",
+                "\"King's House, East Wing\",Kings Road West,Newbury,RG14 5BY"));
+
+        then(actual.lines()).isEqualTo(3);
+        then(actual.imported()).isEqualTo(3);
+        then(actual.invalid()).isZero();
+        then(actual.errors()).isEmpty();
+        ArgumentCaptor<AddressEntity> persisted = ArgumentCaptor.forClass(AddressEntity.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        then(persisted.getAllValues()).extracting(AddressEntity::getBuilding).containsExactly("5", "1A", "King's House, East Wing");
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @DisplayName("importCsv() - Given malformed and invalid lines, then they are reported with their line numbers and the others imported")
+    @Test
+    void importCsv_when_invalidLines_then_reportedWithLineNumbers() throws IOException {
+
+        AddressImportReport actual = addressImportService.importCsv(csv(
+                "building,street,town,postcode",
+                "5,Henley Gate,Henley-On-Thames",
+                "",
+                "1A,Hilbury Road,Earley,",
+                "The Malthouse,Elevator Road,Manchester,M17 1BR"));
+
+        then(actual.lines()).isEqualTo(3);
+        then(actual.imported()).isEqualTo(1);
+        then(actual.invalid()).isEqualTo(2);
+        then(actual.errors()).extracting(LineError::line).containsExactly(2L, 4L);
+        then(actual.errors().get(0).errors()).containsExactly("Expected 4 fields but found 3");
+        then(actual.errors().get(1).errors()).singleElement().asString().startsWith("postcode");
+    }
+
+    @DisplayName("importCsv() - Given a chunk fails to be stored, then its lines are reported as failed and the next chunk is imported")
+    @Test
+    void importCsv_when_chunkFails_then_linesReportedFailed() throws IOException {
+
+        willThrow(new PersistenceException("constraint violated")).willAnswer(invocation -> null).given(entityManager).flush();
+
+        AddressImportReport actual = addressImportService.importCsv(csv(
+                "building,street,town,postcode",
+                "5,Henley Gate,Henley-On-Thames,RG9 4BB",
+                "1A,Hilbury Road,Earley,RG6 5PU",
+                "The Malthouse,Elevator Road,Manchester,M17 1BR"));
+
+        then(actual.imported()).isEqualTo(1);
+        then(actual.failed()).isEqualTo(2);
+        then(actual.errors()).extracting(LineError::line).containsExactly(2L, 3L);
+        then(actual.errors().get(0).errors()).containsExactly(AddressBulkService.STORE_FAILED);
+    }
+
+    @DisplayName("importCsv() - Given more rejected lines than the report limit, then only the first ones are listed")
+    @Test
+    void importCsv_when_moreErrorsThanLimit_then_errorsCapped() throws IOException {
+
+        addressProperties.getCsvImport().setMaxReportedErrors(1);
+        AddressImportService limited = new AddressImportService(null, Runnable::run, addressProperties);
+
+        AddressImportReport actual = limited.importCsv(csv("building,street,town,postcode", "a", "b", "c"));
+
+        then(actual.invalid()).isEqualTo(3);
+        then(actual.errors()).extracting(LineError::line).containsExactly(2L);
+    }
+
+    @DisplayName("importCsv() - Given a CSV without the expected header, then InvalidCsvException is thrown")
+    @Test
+    void importCsv_when_wrongHeader_then_InvalidCsvExceptionThrown() {
+
+        thenExceptionOfType(InvalidCsvException.class)
+                .isThrownBy(() -> addressImportService.importCsv(csv("5,Henley Gate,Henley-On-Thames,RG9 4BB")));
+    }
+
+    @DisplayName("parseFields() - Given quoted fields, then quotes are removed and doubled quotes kept once")
+    @Test
+    void parseFields_when_quotedFields_then_unquoted() {
+
+        List<String> actual = AddressImportService.parseFields("\"The \"\"Old\"\" Mill\", Mill Lane ,\"Reading\",RG1 1AA");
+
+        then(actual).containsExactly("The \"Old\" Mill", "Mill Lane", "Reading", "RG1 1AA");
+        then(AddressImportService.parseFields("\"unterminated,a,b,c")).isNull();
+    }
+}
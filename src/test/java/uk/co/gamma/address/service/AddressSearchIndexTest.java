@@ -0,0 +1,100 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AddressSearchIndexTest {
+
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AddressSearchIndex addressSearchIndex;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        given(addressRepository.streamAddresses()).willReturn(Stream.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")));
+        addressSearchIndex = new AddressSearchIndex(addressRepository, transactionManager);
+        addressSearchIndex.rebuild();
+    }
+
+    @DisplayName("search() - Given a multi-term query, then only addresses containing every term are returned")
+    @Test
+    void search_when_multipleTerms_then_allTermsMatched() {
+
+        then(addressSearchIndex.search("house")).containsExactly(1, 3);
+        then(addressSearchIndex.search("HOUSE london")).containsExactly(3);
+        then(addressSearchIndex.search("rg14 5by")).containsExactly(1);
+        then(addressSearchIndex.search("house manchester")).isEmpty();
+        then(addressSearchIndex.search("  ")).isEmpty();
+    }
+
+    @DisplayName("search() - Given a word ending with *, then it matches as a prefix")
+    @Test
+    void search_when_prefixTerm_then_prefixMatched() {
+
+        then(addressSearchIndex.search("ro*")).containsExactly(1, 2);
+        then(addressSearchIndex.search("house lon*")).containsExactly(3);
+        then(addressSearchIndex.search("*")).isEmpty();
+    }
+
+    @DisplayName("created(), updated(), deleted() - Given writes, then the index follows them")
+    @Test
+    void changes_when_addressesWritten_then_indexUpdated() {
+
+        Address created = new Address(4, "Queen's House", "Station Road", "Reading", "RG1 1AA");
+        addressSearchIndex.created(created);
+        then(addressSearchIndex.search("station")).containsExactly(4);
+
+        Address updated = new Address(4, "Queen's House", "Castle Street", "Reading", "RG1 1AA");
+        addressSearchIndex.updated(created, updated);
+        then(addressSearchIndex.search("station")).isEmpty();
+        then(addressSearchIndex.search("castle reading")).containsExactly(4);
+
+        addressSearchIndex.deleted(updated);
+        then(addressSearchIndex.search("reading")).isEmpty();
+    }
+
+    @DisplayName("rebuild() - Given writes while the table loads, then the rebuilt index has them")
+    @Test
+    void rebuild_when_writtenDuringLoad_then_writesKept() {
+
+        Address holland = new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW");
+        Address moved = new Address(3, "Holland House", "Castle Street", "London", "EC3A 5AW");
+        Address created = new Address(4, "Queen's House", "Station Road", "Reading", "RG1 1AA");
+        given(addressRepository.streamAddresses()).willAnswer(invocation -> {
+            // the load reads the table as it was before these writes
+            addressSearchIndex.created(created);
+            addressSearchIndex.updated(holland, moved);
+            addressSearchIndex.deleted(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+            return Stream.of(new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"), holland);
+        });
+
+        addressSearchIndex.rebuild();
+
+        then(addressSearchIndex.search("station")).containsExactly(4);
+        then(addressSearchIndex.search("castle")).containsExactly(3);
+        then(addressSearchIndex.search("bury")).isEmpty();
+        then(addressSearchIndex.search("kings")).isEmpty();
+    }
+}
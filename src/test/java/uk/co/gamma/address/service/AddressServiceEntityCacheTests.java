@@ -0,0 +1,78 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import uk.co.gamma.address.config.EntityCacheConfiguration;
+import uk.co.gamma.address.model.Address;
+
+// the blacklist is never refreshed, its flag rewrites would evict the cached addresses mid-test
+@SpringBootTest
+class AddressServiceEntityCacheTests {
+
+    @Autowired
+    private AddressService addressService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private BlacklistSnapshotCache blacklistSnapshotCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @DisplayName("getById() - Given an address was written, then it is read from the entity cache without a statement")
+    @Test
+    void getById_when_written_then_entityCacheHit() {
+
+        Address created = addressService.create(new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        statistics.clear();
+
+        then(addressService.getById(created.id())).contains(created);
+
+        then(statistics.getDomainDataRegionStatistics(EntityCacheConfiguration.ADDRESS_REGION).getHitCount()).isEqualTo(1);
+        then(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @DisplayName("update() - Given the address was read, then the UPDATE is the only statement")
+    @Test
+    void update_when_read_then_singleStatement() {
+
+        Address created = addressService.create(new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        addressService.getById(created.id());
+        statistics.clear();
+
+        Address updated = addressService.update(created.id(), new Address(null, "Queen's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        then(statistics.getPrepareStatementCount()).isEqualTo(1);
+        then(addressService.getById(created.id())).contains(updated);
+    }
+
+    @DisplayName("getByPostcode() - Given the same postcode is looked up twice, then the second lookup is served from the query cache")
+    @Test
+    void getByPostcode_when_readTwice_then_queryCacheHit() {
+
+        Address created = addressService.create(new Address(null, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH"));
+        statistics.clear();
+
+        then(addressService.getByPostcode("RG14 7DH", true)).contains(created);
+        then(addressService.getByPostcode("rg14 7dh", true)).contains(created);
+
+        then(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        then(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
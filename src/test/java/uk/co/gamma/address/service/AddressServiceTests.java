@@ -2,21 +2,52 @@ package uk.co.gamma.address.service;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
-
-import java.io.IOException;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.exception.AddressLookupTimeoutException;
+import uk.co.gamma.address.exception.AddressNotFoundException;
 import uk.co.gamma.address.exception.BlackListReadingException;
 import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.AddressPage;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.model.Zone;
 import uk.co.gamma.address.model.db.entity.AddressEntity;
 import uk.co.gamma.address.model.db.repository.AddressRepository;
 import uk.co.gamma.address.model.mapper.AddressMapper;
@@ -30,14 +61,38 @@ class AddressServiceTests {
     private AddressRepository addressRepository;
     @Mock
     private PostCodeBlacklistService postCodeBlacklistService;
-    @InjectMocks
+    @Mock
+    private PostcodeSuggestionIndex postcodeSuggestionIndex;
+    @Mock
+    private AddressSearchIndex addressSearchIndex;
+    @Mock
+    private KnownPostcodeFilter knownPostcodeFilter;
+    @Mock
+    private BlacklistFlags blacklistFlags;
+    @Mock
+    private CompactAddressStore compactAddressStore;
+    @Mock
+    private AddressChangeListener addressChangeListener;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final AddressCache addressCache = new AddressCache(new AddressProperties(), new SimpleMeterRegistry());
     private AddressService addressService;
 
+    @BeforeEach
+    void setup() {
+        lenient().when(knownPostcodeFilter.mightBeKnown(any())).thenReturn(true);
+        lenient().when(blacklistFlags.writing(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // run the overlapped postcode lookup on the test thread
+        addressService = new AddressService(addressRepository, addressMapper, postCodeBlacklistService, Runnable::run, transactionManager, new AddressProperties(),
+                postcodeSuggestionIndex, addressSearchIndex, addressCache, knownPostcodeFilter, blacklistFlags, compactAddressStore, List.of(addressChangeListener));
+    }
+
     @DisplayName("getAll() - Given no addresses, then an empty list is returned")
     @Test
     void getAll_when_noAddresses_then_emptyListReturned() {
 
-        given(addressRepository.findAll()).willReturn(List.of());
+        given(addressRepository.findAddresses()).willReturn(List.of());
 
         List<Address> actual = addressService.getAll(false);
 
@@ -48,13 +103,13 @@ class AddressServiceTests {
     @Test
     void getAll_when_multipleAddresses_and_include_blacklisted_true_then_allAddressesReturned() {
 
-        List<AddressEntity> expected = List.of(
-                new AddressEntity(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
-                new AddressEntity(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
-                new AddressEntity(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
+        List<Address> expected = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
         );
 
-        given(addressRepository.findAll()).willReturn(expected);
+        given(addressRepository.findAddresses()).willReturn(expected);
 
         List<Address> actual = addressService.getAll(true);
 
@@ -64,13 +119,7 @@ class AddressServiceTests {
 
     @DisplayName("getAll() - Given addresses and include_blacklisted flag false, then only non-blacklisted addresses list is returned")
     @Test
-    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_only_non_blacklisted_AddressesReturned() throws IOException, InterruptedException {
-
-        List<AddressEntity> addressesEntities = List.of(
-                new AddressEntity(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
-                new AddressEntity(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
-                new AddressEntity(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
-        );
+    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_only_non_blacklisted_AddressesReturned() {
 
         List<Address> addresses = List.of(
                 new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
@@ -83,8 +132,8 @@ class AddressServiceTests {
                 new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
         );
 
-        given(addressRepository.findAll()).willReturn(addressesEntities);
-        given(postCodeBlacklistService.filterBlacklistedAddresses(addresses)).willReturn(expected);
+        given(addressRepository.findAddresses()).willReturn(addresses);
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 5BY"));
 
         List<Address> actual = addressService.getAll(false);
 
@@ -92,15 +141,9 @@ class AddressServiceTests {
         then(actual).usingRecursiveComparison().isEqualTo(expected);
     }
 
-    @DisplayName("getAll() - Given addresses and include_blacklisted flag false, then if InterruptedException is thrown BlackListReadingException with related error message thrown")
+    @DisplayName("getAll() - Given addresses and include_blacklisted flag false, then if the blacklist read is interrupted BlackListReadingException with related error message thrown")
     @Test
-    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_BlackListReadingExceptionThrown() throws IOException, InterruptedException {
-
-        List<AddressEntity> addressesEntities = List.of(
-                new AddressEntity(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
-                new AddressEntity(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
-                new AddressEntity(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
-        );
+    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_BlackListReadingExceptionThrown() {
 
         List<Address> addresses = List.of(
                 new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
@@ -108,8 +151,8 @@ class AddressServiceTests {
                 new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
         );
 
-        given(addressRepository.findAll()).willReturn(addressesEntities);
-        given(postCodeBlacklistService.filterBlacklistedAddresses(addresses)).willThrow(new InterruptedException());
+        given(addressRepository.findAddresses()).willReturn(addresses);
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED));
 
         // verify
         assertThatThrownBy(() ->
@@ -118,16 +161,9 @@ class AddressServiceTests {
                 .hasMessageContaining("Error Occurred getting Blacklisted addresses.");
     }
 
-    // if  all retrys fail the IOException will be thrown and the message shown, so worth testing I think.
-    @DisplayName("getAll() - Given addresses and include_blacklisted flag false, then if IOException is thrown BlackListReadingException with related error message thrown")
+    @DisplayName("getAll() - Given addresses and include_blacklisted flag false, then if the blacklist cannot be read BlackListReadingException with related error message thrown")
     @Test
-    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_retry_BlackListReadingExceptionThrown() throws IOException, InterruptedException {
-
-        List<AddressEntity> addressesEntities = List.of(
-                new AddressEntity(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
-                new AddressEntity(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR"),
-                new AddressEntity(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
-        );
+    void getAll_when_multipleAddresses_and_include_blacklisted_false_then_retry_BlackListReadingExceptionThrown() {
 
         List<Address> addresses = List.of(
                 new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
@@ -135,8 +171,8 @@ class AddressServiceTests {
                 new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")
         );
 
-        given(addressRepository.findAll()).willReturn(addressesEntities);
-        given(postCodeBlacklistService.filterBlacklistedAddresses(addresses)).willThrow(new IOException());
+        given(addressRepository.findAddresses()).willReturn(addresses);
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY));
 
         // verify
         assertThatThrownBy(() ->
@@ -149,11 +185,11 @@ class AddressServiceTests {
     @Test
     void getByPostcode_when_include_blacklisted_true_all_addresses_for_postcode_returned() {
 
-        List<AddressEntity> expected = List.of(
-                new AddressEntity(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")
+        List<Address> expected = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")
         );
 
-        given(addressRepository.findByPostcodeIgnoreCase("RG14 5BY")).willReturn(expected);
+        given(addressRepository.findAddressesByPostcodeKey("RG14 5BY")).willReturn(expected);
 
         List<Address> actual = addressService.getByPostcode("RG14 5BY",true);
 
@@ -163,11 +199,11 @@ class AddressServiceTests {
 
     @DisplayName("getByPostcode() - Given blacklisted postcode and include_blacklisted flag false, then empty list returned")
     @Test
-    void getByPostcode_when_include_blacklisted_false_empty_list_returned() throws IOException, InterruptedException {
+    void getByPostcode_when_include_blacklisted_false_empty_list_returned() {
 
-        List<AddressEntity> expected = Collections.emptyList();
+        List<Address> expected = Collections.emptyList();
 
-        given(postCodeBlacklistService.isAddressBlackListed("RG14 5BY")).willReturn(true);
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 5BY"));
 
         List<Address> actual = addressService.getByPostcode("RG14 5BY",false);
 
@@ -177,14 +213,14 @@ class AddressServiceTests {
 
     @DisplayName("getByPostcode() - Given non-blacklisted postcode and include_blacklisted flag false, then all Addresses for postcode are returned")
     @Test
-    void getByPostcode_when_include_blacklisted_false_non_blacklisted_postcode_empty_list_returned() throws IOException, InterruptedException {
+    void getByPostcode_when_include_blacklisted_false_non_blacklisted_postcode_empty_list_returned() {
 
-        List<AddressEntity> expected = List.of(
-                new AddressEntity(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR")
+        List<Address> expected = List.of(
+                new Address(2, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR")
         );
 
-        given(postCodeBlacklistService.isAddressBlackListed("M17 1BR")).willReturn(false);
-        given(addressRepository.findByPostcodeIgnoreCase("M17 1BR")).willReturn(expected);
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist());
+        given(addressRepository.findAddressesByPostcodeKey("M17 1BR")).willReturn(expected);
 
         List<Address> actual = addressService.getByPostcode("M17 1BR",false);
 
@@ -192,11 +228,11 @@ class AddressServiceTests {
         then(actual).usingRecursiveComparison().isEqualTo(expected);
     }
 
-    @DisplayName("getByPostcode() - Given postcode and include_blacklisted flag false, then if InterruptedException is thrown BlackListReadingException with related error message thrown")
+    @DisplayName("getByPostcode() - Given postcode and include_blacklisted flag false, then if the blacklist read is interrupted BlackListReadingException with related error message thrown")
     @Test
-    void getByPostcode_when_include_blacklisted_false_blacklistReadingExceptionThrown() throws IOException, InterruptedException {
+    void getByPostcode_when_include_blacklisted_false_blacklistReadingExceptionThrown() {
 
-        given(postCodeBlacklistService.isAddressBlackListed("M17 1BR")).willThrow(new InterruptedException());
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED));
 
         // verify
         assertThatThrownBy(() ->
@@ -205,12 +241,11 @@ class AddressServiceTests {
                 .hasMessageContaining("Error Occurred getting Blacklisted addresses.");
     }
 
-    // if  all retrys fail the IOException will be thrown and the message shown, so worth testing I think.
-    @DisplayName("getByPostcode() - Given postcode and include_blacklisted flag false, then if IOException is thrown BlackListReadingException with related error message thrown")
+    @DisplayName("getByPostcode() - Given postcode and include_blacklisted flag false, then if the blacklist cannot be read BlackListReadingException with related error message thrown")
     @Test
-    void getByPostcode_when_include_blacklisted_false_retry_blacklistReadingExceptionThrown() throws IOException, InterruptedException {
+    void getByPostcode_when_include_blacklisted_false_retry_blacklistReadingExceptionThrown() {
 
-        given(postCodeBlacklistService.isAddressBlackListed("M17 1BR")).willThrow(new IOException());
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY));
 
         // verify
         assertThatThrownBy(() ->
@@ -218,4 +253,464 @@ class AddressServiceTests {
                 .isInstanceOf(BlackListReadingException.class)
                 .hasMessageContaining("Error Occurred getting Blacklisted addresses, please retry later.");
     }
+
+    @DisplayName("getByPostcode() - Given the postcode lookup does not finish in time, then AddressLookupTimeoutException is thrown")
+    @Test
+    void getByPostcode_when_lookupTimesOut_then_AddressLookupTimeoutExceptionThrown() {
+
+        AddressProperties properties = new AddressProperties();
+        properties.getLookup().setTimeout(Duration.ofMillis(10));
+        // an executor that never runs the lookup
+        AddressService stalled = new AddressService(addressRepository, addressMapper, postCodeBlacklistService, task -> { }, transactionManager, properties,
+                postcodeSuggestionIndex, addressSearchIndex, addressCache, knownPostcodeFilter, blacklistFlags, compactAddressStore, List.of(addressChangeListener));
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist());
+
+        assertThatThrownBy(() -> stalled.getByPostcode("M17 1BR", false))
+                .isInstanceOf(AddressLookupTimeoutException.class);
+    }
+
+    @DisplayName("getByPostcode() - Given the postcode is found blacklisted while the query runs, then the query is interrupted")
+    @Test
+    void getByPostcode_when_blacklistedDuringQuery_then_queryInterrupted() throws InterruptedException {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            given(addressRepository.findAddressesByPostcodeKey("RG14 7DH")).willAnswer(invocation -> {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException ie) {
+                    interrupted.countDown();
+                }
+                return List.of();
+            });
+            given(postCodeBlacklistService.snapshotOrThrow()).willAnswer(invocation -> {
+                started.await(5, TimeUnit.SECONDS);
+                return blacklist("RG14 7DH");
+            });
+            AddressService overlapped = new AddressService(addressRepository, addressMapper, postCodeBlacklistService, executor, transactionManager,
+                    new AddressProperties(), postcodeSuggestionIndex, addressSearchIndex, addressCache, knownPostcodeFilter, blacklistFlags,
+                    compactAddressStore, List.of(addressChangeListener));
+
+            List<Address> actual = overlapped.getByPostcode("RG14 7DH", false);
+
+            then(actual).isEmpty();
+            then(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DisplayName("getByPostcode() - Given a blacklisted postcode, then the database result is discarded")
+    @Test
+    void getByPostcode_when_blacklisted_then_databaseResultDiscarded() {
+
+        given(addressRepository.findAddressesByPostcodeKey("RG14 7DH")).willReturn(List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 7DH")));
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 7DH"));
+
+        List<Address> actual = addressService.getByPostcode("RG14 7DH", false);
+
+        then(actual).isEmpty();
+    }
+
+    @DisplayName("getByPostcode() - Given a postcode the filter has never seen, then neither the database nor the blacklist is read")
+    @Test
+    void getByPostcode_when_unknownPostcode_then_noQuery() {
+
+        given(knownPostcodeFilter.mightBeKnown("ZZ9 9ZZ")).willReturn(false);
+
+        List<Address> actual = addressService.getByPostcode(" zz9  9zz", false);
+
+        then(actual).isEmpty();
+        verifyNoInteractions(addressRepository, postCodeBlacklistService);
+    }
+
+    @DisplayName("getAll() - Given the blacklist flags are current, then blacklisted addresses are left out in SQL")
+    @Test
+    void getAll_when_blacklistFlagsCurrent_then_filteredInSql() {
+
+        given(blacklistFlags.isCurrent()).willReturn(true);
+        given(addressRepository.findUnblacklistedAddresses()).willReturn(List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        List<Address> actual = addressService.getAll(false);
+
+        then(actual).extracting(Address::id).containsExactly(1);
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("getPage() - Given the blacklist flags are current, then a full page is read with one query")
+    @Test
+    void getPage_when_blacklistFlagsCurrent_then_singleQuery() {
+
+        given(blacklistFlags.isCurrent()).willReturn(true);
+        given(addressRepository.findUnblacklistedAddressesAfter(0, PageRequest.of(0, 2))).willReturn(List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")));
+
+        AddressPage actual = addressService.getPage(null, 2, false);
+
+        then(actual.addresses()).extracting(Address::id).containsExactly(1, 3);
+        then(actual.nextAfterId()).isEqualTo(3);
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("create() - Given a blacklisted postcode, then the address is stored flagged")
+    @Test
+    void create_when_blacklistedPostcode_then_storedFlagged() {
+
+        given(blacklistFlags.isBlacklisted("RG14 7DH")).willReturn(true);
+        given(addressRepository.save(any(AddressEntity.class))).willAnswer(invocation -> invocation.getArgument(0));
+
+        addressService.create(new Address(null, "The Malthouse", "Elevator Road", "Newbury", "rg14 7dh"));
+
+        ArgumentCaptor<AddressEntity> saved = ArgumentCaptor.forClass(AddressEntity.class);
+        verify(addressRepository).save(saved.capture());
+        then(saved.getValue().isBlacklisted()).isTrue();
+    }
+
+    @DisplayName("getPage() - Given blacklisted addresses in the first batch, then further rows are read to fill the page")
+    @Test
+    void getPage_when_blacklistedAddressesFiltered_then_pageFilledFromNextBatch() {
+
+        Address first = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+        Address blacklisted = new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH");
+        Address third = new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW");
+
+        given(addressRepository.findAddressesAfter(0, PageRequest.of(0, 2))).willReturn(List.of(first, blacklisted));
+        given(addressRepository.findAddressesAfter(2, PageRequest.of(0, 1))).willReturn(List.of(third));
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 7DH"));
+
+        AddressPage actual = addressService.getPage(null, 2, false);
+
+        then(actual.addresses()).extracting(Address::id).containsExactly(1, 3);
+        then(actual.nextAfterId()).isEqualTo(3);
+    }
+
+    @DisplayName("getPage() - Given fewer rows than the limit remain, then the last page has no next cursor")
+    @Test
+    void getPage_when_lastPage_then_noNextCursor() {
+
+        given(addressRepository.findAddressesAfter(5, PageRequest.of(0, 10))).willReturn(List.of(
+                new Address(6, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        AddressPage actual = addressService.getPage(5, 10, true);
+
+        then(actual.addresses()).extracting(Address::id).containsExactly(6);
+        then(actual.nextAfterId()).isNull();
+    }
+
+    @DisplayName("getByPostcodes() - Given postcodes, one of them blacklisted, then one query is run and each postcode maps to its addresses")
+    @Test
+    void getByPostcodes_when_blacklistedPostcode_then_singleQueryAndEmptyListForBlacklisted() {
+
+        Address newbury = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+        Address london = new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW");
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 7DH"));
+        given(addressRepository.findAddressesByPostcodeKeyIn(List.of("RG14 5BY", "EC3A 5AW", "M17 1BR"))).willReturn(List.of(newbury, london));
+
+        Map<String, List<Address>> actual = addressService.getByPostcodes(List.of("rg14 5by", "RG14 7DH", "EC3A 5AW", "M17 1BR", "RG14 5BY"), false);
+
+        then(actual).containsOnlyKeys("rg14 5by", "RG14 7DH", "EC3A 5AW", "M17 1BR", "RG14 5BY");
+        then(actual.get("rg14 5by")).extracting(Address::id).containsExactly(1);
+        then(actual.get("RG14 5BY")).extracting(Address::id).containsExactly(1);
+        then(actual.get("EC3A 5AW")).extracting(Address::id).containsExactly(3);
+        then(actual.get("RG14 7DH")).isEmpty();
+        then(actual.get("M17 1BR")).isEmpty();
+    }
+
+    @DisplayName("getByPostcodes() - Given more postcodes than fit in one IN list, then they are queried in chunks")
+    @Test
+    void getByPostcodes_when_manyPostcodes_then_queriedInChunks() {
+
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getLookup().setInClauseSize(2);
+        AddressService chunked = new AddressService(addressRepository, addressMapper, postCodeBlacklistService, Runnable::run, transactionManager, addressProperties,
+                postcodeSuggestionIndex, addressSearchIndex, addressCache, knownPostcodeFilter, blacklistFlags, compactAddressStore, List.of(addressChangeListener));
+
+        given(addressRepository.findAddressesByPostcodeKeyIn(anyList())).willReturn(List.of());
+
+        Map<String, List<Address>> actual = chunked.getByPostcodes(List.of("RG14 5BY", "EC3A 5AW", "M17 1BR"), true);
+
+        then(actual).hasSize(3);
+        verify(addressRepository, times(2)).findAddressesByPostcodeKeyIn(anyList());
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("getByPostcodes() - Given postcodes the filter has never seen, then only the others are queried")
+    @Test
+    void getByPostcodes_when_unknownPostcodes_then_onlyPossiblyKnownQueried() {
+
+        given(knownPostcodeFilter.mightBeKnown("ZZ9 9ZZ")).willReturn(false);
+        given(addressRepository.findAddressesByPostcodeKeyIn(List.of("RG14 5BY"))).willReturn(List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        Map<String, List<Address>> actual = addressService.getByPostcodes(List.of("RG14 5BY", "ZZ9 9ZZ"), true);
+
+        then(actual.get("RG14 5BY")).extracting(Address::id).containsExactly(1);
+        then(actual.get("ZZ9 9ZZ")).isEmpty();
+    }
+
+    @DisplayName("getByPostcodes() - Given only unknown postcodes, then neither the database nor the blacklist is read")
+    @Test
+    void getByPostcodes_when_allUnknown_then_noQuery() {
+
+        given(knownPostcodeFilter.mightBeKnown(any())).willReturn(false);
+
+        Map<String, List<Address>> actual = addressService.getByPostcodes(List.of("ZZ9 9ZZ", "ZZ9 9ZY"), false);
+
+        then(actual).containsOnlyKeys("ZZ9 9ZZ", "ZZ9 9ZY");
+        verifyNoInteractions(addressRepository, postCodeBlacklistService);
+    }
+
+    @DisplayName("getByPostcodes() - Given the blacklist cannot be read, then BlackListReadingException is thrown")
+    @Test
+    void getByPostcodes_when_blacklistUnavailable_then_BlackListReadingExceptionThrown() {
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willThrow(new BlackListReadingException(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY));
+
+        assertThatThrownBy(() -> addressService.getByPostcodes(List.of("RG14 5BY"), false))
+                .isInstanceOf(BlackListReadingException.class)
+                .hasMessage(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY);
+    }
+
+    @DisplayName("suggest() - Given include_blacklisted flag false, then the index is queried with the current blacklist")
+    @Test
+    void suggest_when_include_blacklisted_false_then_indexQueriedWithMatcher() {
+
+        BlacklistSnapshot blacklist = blacklist("RG14 7DH");
+        BlacklistMatcher matcher = blacklist.matcher();
+        List<PostcodeSuggestion> expected = List.of(new PostcodeSuggestion("RG14 5BY", 2));
+
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist);
+        given(postcodeSuggestionIndex.suggest("rg14", 10, matcher)).willReturn(expected);
+
+        then(addressService.suggest("rg14", 10, false)).isEqualTo(expected);
+    }
+
+    @DisplayName("suggest() - Given include_blacklisted flag true, then the blacklist is not read")
+    @Test
+    void suggest_when_include_blacklisted_true_then_blacklistNotRead() {
+
+        given(postcodeSuggestionIndex.suggest(any(), anyInt(), isNull())).willReturn(List.of());
+
+        then(addressService.suggest("RG", 5, true)).isEmpty();
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("create() - Given an address is created, then the change listeners are told")
+    @Test
+    void create_when_addressCreated_then_listenersTold() {
+
+        given(addressRepository.save(any(AddressEntity.class)))
+                .willReturn(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        Address actual = addressService.create(new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        then(actual.id()).isEqualTo(9);
+        verify(addressChangeListener).created(actual);
+    }
+
+    @DisplayName("update() - Given an address is updated, then one UPDATE is run and the change listeners are told its old and new values")
+    @Test
+    void update_when_addressUpdated_then_listenersToldBeforeAndAfter() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(blacklistFlags.isBlacklisted("RG14 7DH")).willReturn(true);
+        given(addressRepository.updateAddress(9, "King's House", "Kings Road West", "Newbury", "rg14 7dh", "RG14 7DH", true)).willReturn(1);
+
+        Address actual = addressService.update(9, new Address(null, "King's House", "Kings Road West", "Newbury", "rg14 7dh"));
+
+        then(actual).isEqualTo(new Address(9, "King's House", "Kings Road West", "Newbury", "rg14 7dh"));
+        verify(addressChangeListener).updated(new Address(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY"), actual);
+        verify(addressRepository, never()).save(any());
+    }
+
+    @DisplayName("update() - Given the previous value is cached, then only the UPDATE reaches the database")
+    @Test
+    void update_when_previousValueCached_then_singleStatement() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(addressRepository.updateAddress(eq(9), any(), any(), any(), any(), any(), anyBoolean())).willReturn(1);
+        addressService.getById(9);
+
+        addressService.update(9, new Address(null, "Queen's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        verify(addressRepository, times(1)).findById(9);
+        verify(addressRepository).updateAddress(9, "Queen's House", "Kings Road West", "Newbury", "RG14 5BY", "RG14 5BY", false);
+    }
+
+    @DisplayName("update() - Given the compact store is loaded, then the previous value is read from it and only the UPDATE reaches the database")
+    @Test
+    void update_when_compactStoreReady_then_previousValueFromStore() {
+
+        Address before = new Address(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+        given(compactAddressStore.isReady()).willReturn(true);
+        given(compactAddressStore.get(9)).willReturn(Optional.of(before));
+        given(addressRepository.updateAddress(eq(9), any(), any(), any(), any(), any(), anyBoolean())).willReturn(1);
+
+        Address actual = addressService.update(9, new Address(null, "Queen's House", "Kings Road West", "Newbury", "RG14 5BY"));
+
+        verify(addressRepository, never()).findById(any());
+        verify(addressChangeListener).updated(before, actual);
+    }
+
+    @DisplayName("update() - Given no address with the ID, then AddressNotFoundException is thrown and no listener is told")
+    @Test
+    void update_when_addressNotPresent_then_AddressNotFoundExceptionThrown() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> addressService.update(9, new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY")))
+                .isInstanceOf(AddressNotFoundException.class);
+        verify(addressRepository, never()).updateAddress(any(), any(), any(), any(), any(), any(), anyBoolean());
+        verifyNoInteractions(addressChangeListener);
+    }
+
+    @DisplayName("update() - Given the address is deleted before the UPDATE, then AddressNotFoundException is thrown and no listener is told")
+    @Test
+    void update_when_noRowUpdated_then_AddressNotFoundExceptionThrown() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(addressRepository.updateAddress(eq(9), any(), any(), any(), any(), any(), anyBoolean())).willReturn(0);
+
+        assertThatThrownBy(() -> addressService.update(9, new Address(null, "King's House", "Kings Road West", "Newbury", "RG14 5BY")))
+                .isInstanceOf(AddressNotFoundException.class);
+        verifyNoInteractions(addressChangeListener);
+    }
+
+    @DisplayName("delete() - Given an address is deleted, then one DELETE is run and the change listeners are told")
+    @Test
+    void delete_when_addressDeleted_then_listenersTold() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(addressRepository.deleteAddress(9)).willReturn(1);
+
+        addressService.delete(9);
+
+        verify(addressChangeListener).deleted(new Address(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+        verify(addressRepository, never()).delete(any());
+    }
+
+    @DisplayName("delete() - Given no address with the ID, then AddressNotFoundException is thrown and no listener is told")
+    @Test
+    void delete_when_addressNotPresent_then_AddressNotFoundExceptionThrown() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> addressService.delete(9)).isInstanceOf(AddressNotFoundException.class);
+        verify(addressRepository, never()).deleteAddress(any());
+        verifyNoInteractions(addressChangeListener);
+    }
+
+    @DisplayName("delete() - Given the address is deleted before the DELETE, then AddressNotFoundException is thrown and no listener is told")
+    @Test
+    void delete_when_noRowDeleted_then_AddressNotFoundExceptionThrown() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(addressRepository.deleteAddress(9)).willReturn(0);
+
+        assertThatThrownBy(() -> addressService.delete(9)).isInstanceOf(AddressNotFoundException.class);
+        verifyNoInteractions(addressChangeListener);
+    }
+
+    @DisplayName("search() - Given matching ids, then only those addresses are read, in id order and without blacklisted ones")
+    @Test
+    void search_when_matchingIds_then_addressesReadAndBlacklistedRemoved() {
+
+        given(addressSearchIndex.search("house")).willReturn(new int[] {1, 2, 3});
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist("RG14 7DH"));
+        given(addressRepository.findAddressesByIdIn(List.of(1, 2))).willReturn(List.of(
+                new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH"),
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+        given(addressRepository.findAddressesByIdIn(List.of(3))).willReturn(List.of(
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW")));
+
+        List<Address> actual = addressService.search("house", 2, false);
+
+        then(actual).extracting(Address::id).containsExactly(1, 3);
+    }
+
+    @DisplayName("search() - Given no matching ids, then neither the database nor the blacklist is read")
+    @Test
+    void search_when_noMatch_then_nothingRead() {
+
+        given(addressSearchIndex.search("nowhere")).willReturn(new int[0]);
+
+        then(addressService.search("nowhere", 20, false)).isEmpty();
+        verifyNoInteractions(addressRepository, postCodeBlacklistService);
+    }
+
+    @DisplayName("getById() - Given an id, then the address is read as an entity, which the second-level cache can serve")
+    @Test
+    void getById_when_present_then_entityRead() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        then(addressService.getById(9)).contains(new Address(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY"));
+    }
+
+    @DisplayName("getById() - Given the same id is read twice, then the database is read once")
+    @Test
+    void getById_when_readTwice_then_databaseReadOnce() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.of(new AddressEntity(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY")));
+
+        Optional<Address> first = addressService.getById(9);
+        Optional<Address> second = addressService.getById(9);
+
+        then(second).isEqualTo(first).isPresent();
+        verify(addressRepository, times(1)).findById(9);
+    }
+
+    @DisplayName("getById() - Given a missing id is read twice, then the database is read once")
+    @Test
+    void getById_when_missingIdReadTwice_then_negativeResultCached() {
+
+        given(addressRepository.findById(9)).willReturn(Optional.empty());
+
+        then(addressService.getById(9)).isEmpty();
+        then(addressService.getById(9)).isEmpty();
+        verify(addressRepository, times(1)).findById(9);
+    }
+
+    @DisplayName("getPage() - Given the compact store is loaded, then the page is read from it without the database")
+    @Test
+    void getPage_when_compactStoreReady_then_servedFromStore() {
+
+        BlacklistSnapshot blacklist = blacklist("RG14 7DH");
+        BlacklistMatcher matcher = blacklist.matcher();
+        given(compactAddressStore.isReady()).willReturn(true);
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist);
+        given(compactAddressStore.getPage(eq(5), eq(2), any())).willReturn(List.of(
+                new Address(6, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(8, "Holland House", "Bury Street", "London", "EC3A 5AW")));
+
+        AddressPage actual = addressService.getPage(5, 2, false);
+
+        then(actual.addresses()).extracting(Address::id).containsExactly(6, 8);
+        then(actual.nextAfterId()).isEqualTo(8);
+        verifyNoInteractions(addressRepository);
+    }
+
+    @DisplayName("getById() - Given the compact store is loaded, then the address is read from it without the database")
+    @Test
+    void getById_when_compactStoreReady_then_servedFromStore() {
+
+        Address expected = new Address(9, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+        given(compactAddressStore.isReady()).willReturn(true);
+        given(compactAddressStore.get(9)).willReturn(Optional.of(expected));
+
+        then(addressService.getById(9)).contains(expected);
+        verifyNoInteractions(addressRepository);
+    }
+
+    private static BlacklistSnapshot blacklist(String... postcodes) {
+        return new BlacklistSnapshot(1, Stream.of(postcodes).map(Zone::new).toList(), Instant.now());
+    }
 }
@@ -0,0 +1,69 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
+import uk.co.gamma.address.model.Zone;
+
+@ExtendWith(MockitoExtension.class)
+class BlacklistCircuitBreakerTest {
+
+    @Mock
+    private BlackListService blackListService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BlacklistCircuitBreaker blacklistCircuitBreaker;
+
+    @BeforeEach
+    void setup() {
+        BlacklistProperties properties = new BlacklistProperties();
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        properties.getCircuitBreaker().setWaitDurationInOpenState(Duration.ofMinutes(1));
+        blacklistCircuitBreaker = new BlacklistCircuitBreaker(blackListService, properties, meterRegistry);
+    }
+
+    @DisplayName("getAll() - Given the upstream succeeds, then the zones are returned and the breaker stays closed")
+    @Test
+    void getAll_when_upstreamSucceeds_then_zonesReturned() throws IOException, InterruptedException {
+
+        List<Zone> expected = List.of(new Zone("rg14 7dh"));
+        given(blackListService.getAll()).willReturn(expected);
+
+        then(blacklistCircuitBreaker.getAll()).isSameAs(expected);
+        then(blacklistCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @DisplayName("getAll() - Given the failure rate is over the threshold, then the breaker opens and fails fast")
+    @Test
+    void getAll_when_failureRateExceeded_then_breakerOpensAndFailsFast() throws IOException, InterruptedException {
+
+        given(blackListService.getAll()).willThrow(new IOException());
+        for (int i = 0; i < 4; i++) {
+            thenExceptionOfType(IOException.class).isThrownBy(() -> blacklistCircuitBreaker.getAll());
+        }
+
+        thenExceptionOfType(BlacklistUnavailableException.class).isThrownBy(() -> blacklistCircuitBreaker.getAll());
+
+        verify(blackListService, times(4)).getAll();
+        then(blacklistCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        then(meterRegistry.get("blacklist.breaker.transitions").tag("from", "CLOSED").tag("to", "OPEN").counter().count()).isEqualTo(1);
+    }
+}
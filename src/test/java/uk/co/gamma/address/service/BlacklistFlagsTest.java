@@ -0,0 +1,154 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Zone;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BlacklistFlagsTest {
+
+    private static final BlacklistSnapshot NEWBURY_BLACKLISTED = new BlacklistSnapshot(1, List.of(new Zone("RG14")), Instant.now());
+
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PostCodeBlacklistService postCodeBlacklistService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BlacklistFlags blacklistFlags;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        AddressProperties addressProperties = new AddressProperties();
+        addressProperties.getLookup().setInClauseSize(1);
+        // run the rewrite on the test thread
+        blacklistFlags = new BlacklistFlags(addressRepository, postCodeBlacklistService, transactionManager, Runnable::run, addressProperties);
+    }
+
+    @DisplayName("isCurrent() - Given no snapshot was applied, then the flags are not current and the blacklist is not read")
+    @Test
+    void isCurrent_when_nothingApplied_then_false() {
+
+        then(blacklistFlags.isCurrent()).isFalse();
+        then(blacklistFlags.isBlacklisted("RG14 7DH")).isFalse();
+        verifyNoInteractions(postCodeBlacklistService);
+    }
+
+    @DisplayName("blacklistRefreshed() - Given a new snapshot, then the flags are cleared and the blacklisted postcodes flagged in chunks")
+    @Test
+    void blacklistRefreshed_when_newSnapshot_then_columnRewritten() {
+
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of("RG14 5BY", "M17 1BR", "RG14 7DH"));
+        given(postCodeBlacklistService.peekSnapshot()).willReturn(Optional.of(NEWBURY_BLACKLISTED));
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        verify(addressRepository).clearBlacklisted();
+        verify(addressRepository).markBlacklisted(List.of("RG14 5BY"));
+        verify(addressRepository).markBlacklisted(List.of("RG14 7DH"));
+        verify(transactionManager).commit(any());
+        then(blacklistFlags.isCurrent()).isTrue();
+        then(blacklistFlags.isBlacklisted("RG14 7DH")).isTrue();
+        then(blacklistFlags.isBlacklisted("M17 1BR")).isFalse();
+    }
+
+    @DisplayName("blacklistRefreshed() - Given the applied version again, then the column is not rewritten")
+    @Test
+    void blacklistRefreshed_when_sameVersion_then_skipped() {
+
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of("RG14 5BY"));
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        verify(addressRepository, times(1)).clearBlacklisted();
+    }
+
+    @DisplayName("blacklistRefreshed() - Given the rewrite fails, then the flags are not current and the next refresh retries")
+    @Test
+    void blacklistRefreshed_when_rewriteFails_then_notCurrentAndRetried() {
+
+        given(addressRepository.streamPostcodeKeys()).willThrow(new PersistenceException("down")).willReturn(Stream.of("M17 1BR"));
+        given(postCodeBlacklistService.peekSnapshot()).willReturn(Optional.of(NEWBURY_BLACKLISTED));
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        then(blacklistFlags.isBlacklisted("RG14 7DH")).isFalse();
+        verify(addressRepository, never()).clearBlacklisted();
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        then(blacklistFlags.isCurrent()).isTrue();
+    }
+
+    @DisplayName("isCurrent() - Given a newer snapshot than the one applied, then the flags are not current")
+    @Test
+    void isCurrent_when_newerSnapshot_then_false() {
+
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of());
+        given(postCodeBlacklistService.peekSnapshot()).willReturn(Optional.of(new BlacklistSnapshot(2, List.of(), Instant.now())));
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        then(blacklistFlags.isCurrent()).isFalse();
+    }
+
+    @DisplayName("isCurrent() - Given no snapshot held by the cache, then the flags are not current and nothing is loaded")
+    @Test
+    void isCurrent_when_noSnapshotHeld_then_falseWithoutLoading() {
+
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of());
+        given(postCodeBlacklistService.peekSnapshot()).willReturn(Optional.empty());
+
+        blacklistFlags.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+
+        then(blacklistFlags.isCurrent()).isFalse();
+        verify(postCodeBlacklistService, never()).snapshotOrThrow();
+    }
+
+    @DisplayName("blacklistRefreshed() - Given refreshes queued behind a rewrite, then only the newest snapshot is applied")
+    @Test
+    void blacklistRefreshed_when_refreshesQueued_then_newestApplied() {
+
+        List<Runnable> queued = new ArrayList<>();
+        BlacklistFlags deferred = new BlacklistFlags(addressRepository, postCodeBlacklistService, transactionManager, queued::add, new AddressProperties());
+        BlacklistSnapshot newer = new BlacklistSnapshot(2, List.of(new Zone("M17")), Instant.now());
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of("RG14 5BY", "M17 1BR"));
+        given(postCodeBlacklistService.peekSnapshot()).willReturn(Optional.of(newer));
+
+        deferred.blacklistRefreshed(new BlacklistRefreshedEvent(NEWBURY_BLACKLISTED));
+        deferred.blacklistRefreshed(new BlacklistRefreshedEvent(newer));
+
+        verifyNoInteractions(addressRepository);
+        queued.forEach(Runnable::run);
+
+        verify(addressRepository, times(1)).clearBlacklisted();
+        verify(addressRepository).markBlacklisted(List.of("M17 1BR"));
+        then(deferred.isCurrent()).isTrue();
+    }
+}
@@ -0,0 +1,86 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.Zone;
+
+class BlacklistMatcherTest {
+
+    private final BlacklistMatcher blacklistMatcher = BlacklistMatcher.compile(List.of(new Zone("rg14 7dh"), new Zone("rg6 1ps")));
+
+    @DisplayName("isBlacklisted() - Given a blacklisted postcode in a different case and spacing, then true is returned")
+    @Test
+    void isBlacklisted_when_caseAndSpacingDiffer_then_true() {
+
+        then(blacklistMatcher.isBlacklisted(" RG14   7DH ")).isTrue();
+    }
+
+    @DisplayName("isBlacklisted() - Given a postcode that is not blacklisted, then false is returned")
+    @Test
+    void isBlacklisted_when_notBlacklisted_then_false() {
+
+        then(blacklistMatcher.isBlacklisted("RG14 5BY")).isFalse();
+        then(blacklistMatcher.isBlacklisted(null)).isFalse();
+    }
+
+    @DisplayName("filter() - Given addresses, then blacklisted ones are removed and the order is kept")
+    @Test
+    void filter_when_blacklistedAddresses_then_removedInOrder() {
+
+        List<Address> addresses = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "The Malthouse", "Elevator Road", "Manchester", "RG6 1PS"),
+                new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+
+        List<Address> actual = blacklistMatcher.filter(addresses);
+
+        then(actual).containsExactly(addresses.get(0), addresses.get(2));
+    }
+
+    @DisplayName("compile() - Given many zones, then every one of them is matched")
+    @Test
+    void compile_when_manyZones_then_allMatched() {
+
+        List<Zone> zones = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            zones.add(new Zone("ZZ%d %dAA".formatted(i / 10, i % 10)));
+        }
+
+        BlacklistMatcher actual = BlacklistMatcher.compile(zones);
+
+        then(zones).allMatch(zone -> actual.isBlacklisted(zone.getPostCode()));
+        then(actual.isBlacklisted("RG14 5BY")).isFalse();
+    }
+
+    @DisplayName("isBlacklisted() - Given area, district and sector zones, then every postcode inside them is matched")
+    @Test
+    void isBlacklisted_when_wildcardZones_then_postcodesInsideMatched() {
+
+        BlacklistMatcher wildcards = BlacklistMatcher.compile(List.of(new Zone("rg14"), new Zone("M17 1"), new Zone("EC")));
+
+        then(wildcards.isBlacklisted("RG14 5BY")).isTrue();
+        then(wildcards.isBlacklisted("M17 1BR")).isTrue();
+        then(wildcards.isBlacklisted("EC3A 5AW")).isTrue();
+        then(wildcards.isBlacklisted("RG1 4AA")).isFalse();
+        then(wildcards.isBlacklisted("M17 2BR")).isFalse();
+        then(wildcards.isBlacklisted("E1 6AN")).isFalse();
+    }
+
+    @DisplayName("filter() - Given a district zone, then every address in the district is removed")
+    @Test
+    void filter_when_districtZone_then_districtRemoved() {
+
+        BlacklistMatcher district = BlacklistMatcher.compile(List.of(new Zone("RG14")));
+        List<Address> addresses = List.of(
+                new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "Queen's House", "Kings Road West", "Newbury", "rg14 7dh"),
+                new Address(3, "6", "Stansfield Close", "Reading", "RG2 7BQ"));
+
+        then(district.filter(addresses)).containsExactly(addresses.get(2));
+    }
+}
@@ -0,0 +1,184 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
+import uk.co.gamma.address.model.Zone;
+
+@ExtendWith(MockitoExtension.class)
+class BlacklistSnapshotCacheTest {
+
+    @Mock
+    private CoalescingBlacklistFetcher blacklistFetcher;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Object> events = new ArrayList<>();
+
+    private BlacklistSnapshotCache blacklistSnapshotCache;
+
+    @BeforeEach
+    void setup() {
+        BlacklistProperties properties = new BlacklistProperties();
+        properties.getCache().setTtl(Duration.ofMinutes(1));
+        properties.getCache().setMaxStaleness(Duration.ofMinutes(10));
+        blacklistSnapshotCache = new BlacklistSnapshotCache(blacklistFetcher, properties, events::add, clock);
+    }
+
+    @DisplayName("get() - Given no snapshot, then the zones are loaded synchronously")
+    @Test
+    void get_when_noSnapshot_then_loadedSynchronously() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh")));
+
+        BlacklistSnapshot actual = blacklistSnapshotCache.get();
+
+        then(actual.zones()).extracting(Zone::getPostCode).containsExactly("rg14 7dh");
+        then(actual.version()).isEqualTo(1);
+    }
+
+    @DisplayName("get() - Given a snapshot older than the ttl but within max staleness, then it is served without calling the upstream")
+    @Test
+    void get_when_staleWithinMaxStaleness_then_snapshotServed() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh")));
+        BlacklistSnapshot expected = blacklistSnapshotCache.get();
+
+        clock.advance(Duration.ofMinutes(5));
+
+        then(blacklistSnapshotCache.get()).isSameAs(expected);
+        verify(blacklistFetcher, times(1)).getAll();
+    }
+
+    @DisplayName("get() - Given a snapshot older than max staleness, then it is reloaded")
+    @Test
+    void get_when_olderThanMaxStaleness_then_reloaded() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh")), List.of(new Zone("rg6 1ps")));
+        blacklistSnapshotCache.get();
+
+        clock.advance(Duration.ofMinutes(11));
+
+        BlacklistSnapshot actual = blacklistSnapshotCache.get();
+
+        then(actual.zones()).extracting(Zone::getPostCode).containsExactly("rg6 1ps");
+        then(actual.version()).isEqualTo(2);
+    }
+
+    @DisplayName("refresh() - Given the upstream returns the same zones, then the version and matcher are kept")
+    @Test
+    void refresh_when_zonesUnchanged_then_versionKept() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh")), List.of(new Zone("rg14 7dh")));
+        BlacklistSnapshot first = blacklistSnapshotCache.refresh();
+
+        clock.advance(Duration.ofMinutes(1));
+        BlacklistSnapshot actual = blacklistSnapshotCache.refresh();
+
+        then(actual.version()).isEqualTo(first.version());
+        then(actual.matcher()).isSameAs(first.matcher());
+        then(actual.loadedAt()).isAfter(first.loadedAt());
+        then(events).containsExactly(new BlacklistRefreshedEvent(first), new BlacklistRefreshedEvent(actual));
+    }
+
+    @DisplayName("refresh() - Given the upstream returns null, then the snapshot holds no zones and a second null keeps the version")
+    @Test
+    void refresh_when_upstreamReturnsNull_then_emptySnapshot() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(null);
+
+        BlacklistSnapshot first = blacklistSnapshotCache.refresh();
+        BlacklistSnapshot second = blacklistSnapshotCache.refresh();
+
+        then(first.zones()).isEmpty();
+        then(first.matcher().isBlacklisted("RG14 7DH")).isFalse();
+        then(second.version()).isEqualTo(first.version());
+    }
+
+    @DisplayName("scheduledRefresh() - Given the upstream fails, then the previous snapshot is kept")
+    @Test
+    void scheduledRefresh_when_upstreamFails_then_previousSnapshotKept() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh"))).willThrow(new IOException());
+        BlacklistSnapshot expected = blacklistSnapshotCache.get();
+
+        blacklistSnapshotCache.scheduledRefresh();
+
+        then(blacklistSnapshotCache.get()).isSameAs(expected);
+    }
+
+    @DisplayName("get() - Given a snapshot past max staleness and the breaker is open, then the last known good snapshot is served")
+    @Test
+    void get_when_breakerOpenWithinFallbackStaleness_then_lastKnownGoodServed() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh"))).willThrow(new BlacklistUnavailableException("open"));
+        BlacklistSnapshot expected = blacklistSnapshotCache.get();
+
+        clock.advance(Duration.ofMinutes(30));
+
+        then(blacklistSnapshotCache.get()).isSameAs(expected);
+    }
+
+    @DisplayName("get() - Given a snapshot past the fallback staleness and the breaker is open, then the BlacklistUnavailableException is thrown")
+    @Test
+    void get_when_breakerOpenPastFallbackStaleness_then_BlacklistUnavailableExceptionThrown() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willReturn(List.of(new Zone("rg14 7dh"))).willThrow(new BlacklistUnavailableException("open"));
+        blacklistSnapshotCache.get();
+
+        clock.advance(Duration.ofHours(2));
+
+        thenExceptionOfType(BlacklistUnavailableException.class).isThrownBy(() -> blacklistSnapshotCache.get());
+    }
+
+    @DisplayName("get() - Given no snapshot and the upstream fails, then the IOException is thrown")
+    @Test
+    void get_when_noSnapshotAndUpstreamFails_then_IOExceptionThrown() throws IOException, InterruptedException {
+
+        given(blacklistFetcher.getAll()).willThrow(new IOException());
+
+        thenExceptionOfType(IOException.class).isThrownBy(() -> blacklistSnapshotCache.get());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2022-04-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.model.Zone;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingBlacklistFetcherTest {
+
+    private static final int CALLERS = 8;
+
+    @Mock
+    private HedgingBlacklistFetcher hedgingBlacklistFetcher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    private CoalescingBlacklistFetcher coalescingBlacklistFetcher;
+
+    @BeforeEach
+    void setup() {
+        coalescingBlacklistFetcher = new CoalescingBlacklistFetcher(hedgingBlacklistFetcher, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("getAll() - Given concurrent callers, then a single upstream fetch is shared by all of them")
+    @Test
+    void getAll_when_concurrentCallers_then_singleUpstreamFetch() throws Exception {
+
+        List<Zone> expected = List.of(new Zone("rg14 7dh"));
+        CountDownLatch release = new CountDownLatch(1);
+        given(hedgingBlacklistFetcher.getAll()).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return expected;
+        });
+
+        List<Future<List<Zone>>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> coalescingBlacklistFetcher.getAll()));
+        }
+        // give every caller the chance to join the in-flight fetch before it completes
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<List<Zone>> result : results) {
+            then(result.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+        }
+        verify(hedgingBlacklistFetcher, times(1)).getAll();
+        then(meterRegistry.get("blacklist.fetch.coalesced").summary().totalAmount()).isEqualTo(CALLERS - 1);
+        then(meterRegistry.get("blacklist.fetch.upstream").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("getAll() - Given sequential callers, then each one starts its own fetch")
+    @Test
+    void getAll_when_sequentialCallers_then_fetchPerCaller() throws IOException, InterruptedException {
+
+        given(hedgingBlacklistFetcher.getAll()).willReturn(List.of());
+
+        coalescingBlacklistFetcher.getAll();
+        coalescingBlacklistFetcher.getAll();
+
+        verify(hedgingBlacklistFetcher, times(2)).getAll();
+    }
+
+    @DisplayName("getAll() - Given the shared fetch fails, then the IOException reaches the caller")
+    @Test
+    void getAll_when_upstreamFails_then_IOExceptionThrown() throws IOException, InterruptedException {
+
+        given(hedgingBlacklistFetcher.getAll()).willThrow(new IOException());
+
+        thenExceptionOfType(IOException.class).isThrownBy(() -> coalescingBlacklistFetcher.getAll());
+    }
+
+    @DisplayName("getAll() - Given the caller making the shared fetch is interrupted, then the callers that joined it fetch again")
+    @Test
+    void getAll_when_leaderInterrupted_then_joinedCallersFetchAgain() throws Exception {
+
+        List<Zone> expected = List.of(new Zone("rg14 7dh"));
+        CountDownLatch started = new CountDownLatch(1);
+        given(hedgingBlacklistFetcher.getAll()).willAnswer(invocation -> {
+            started.countDown();
+            new CountDownLatch(1).await();
+            return List.of();
+        }).willReturn(expected);
+
+        Future<List<Zone>> leader = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        then(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<Zone>> joined = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        // give the second caller the chance to join the in-flight fetch before the first one is interrupted
+        Thread.sleep(200);
+        leader.cancel(true);
+
+        then(joined.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+        verify(hedgingBlacklistFetcher, times(2)).getAll();
+    }
+
+    @DisplayName("getAll() - Given the shared fetch fails with an Error, then the joined callers get it and the next caller fetches again")
+    @Test
+    void getAll_when_leaderFailsWithError_then_joinedCallersFailAndNextFetches() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(hedgingBlacklistFetcher.getAll()).willAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new OutOfMemoryError("upstream");
+        }).willReturn(List.of());
+
+        Future<List<Zone>> leader = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        then(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<Zone>> joined = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        // give the second caller the chance to join the in-flight fetch before it fails
+        Thread.sleep(200);
+        release.countDown();
+
+        thenExceptionOfType(ExecutionException.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).withCauseInstanceOf(OutOfMemoryError.class);
+        thenExceptionOfType(ExecutionException.class).isThrownBy(() -> joined.get(5, TimeUnit.SECONDS)).withCauseInstanceOf(OutOfMemoryError.class);
+        then(coalescingBlacklistFetcher.getAll()).isEmpty();
+        verify(hedgingBlacklistFetcher, times(2)).getAll();
+    }
+
+    @DisplayName("getAll() - Given the upstream returns null, then the joined callers get null without fetching again")
+    @Test
+    void getAll_when_upstreamReturnsNull_then_joinedCallersDoNotFetchAgain() throws Exception {
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(hedgingBlacklistFetcher.getAll()).willAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+
+        Future<List<Zone>> leader = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        then(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<Zone>> joined = executor.submit(() -> coalescingBlacklistFetcher.getAll());
+        // give the second caller the chance to join the in-flight fetch before it completes
+        Thread.sleep(200);
+        release.countDown();
+
+        then(leader.get(5, TimeUnit.SECONDS)).isNull();
+        then(joined.get(5, TimeUnit.SECONDS)).isNull();
+        verify(hedgingBlacklistFetcher, times(1)).getAll();
+    }
+}
@@ -0,0 +1,89 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CompactAddressStoreTest {
+
+    private static final Address NEWBURY = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+    private static final Address MALTHOUSE = new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH");
+    private static final Address LONDON = new Address(3, "Holland House", "Bury Street", "London", "EC3A 5AW");
+
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AddressProperties addressProperties = new AddressProperties();
+    private CompactAddressStore compactAddressStore;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        addressProperties.getCompactStore().setEnabled(true);
+        compactAddressStore = new CompactAddressStore(addressRepository, transactionManager, addressProperties);
+    }
+
+    @DisplayName("load() - Given the store is disabled, then the table is not read and the store is never ready")
+    @Test
+    void load_when_disabled_then_notReady() {
+
+        addressProperties.getCompactStore().setEnabled(false);
+        CompactAddressStore disabled = new CompactAddressStore(addressRepository, transactionManager, addressProperties);
+
+        disabled.load();
+        disabled.created(NEWBURY);
+
+        then(disabled.isReady()).isFalse();
+        verifyNoInteractions(addressRepository);
+    }
+
+    @DisplayName("load() - Given addresses, then they are served from the store, blacklisted postcodes left out on request")
+    @Test
+    void load_when_addresses_then_served() {
+
+        given(addressRepository.streamAddresses()).willReturn(Stream.of(NEWBURY, MALTHOUSE, LONDON));
+
+        compactAddressStore.load();
+
+        then(compactAddressStore.isReady()).isTrue();
+        then(compactAddressStore.get(2)).contains(MALTHOUSE);
+        then(compactAddressStore.getAll(null)).containsExactly(NEWBURY, MALTHOUSE, LONDON);
+        then(compactAddressStore.getAll("RG14 7DH"::equals)).containsExactly(NEWBURY, LONDON);
+        then(compactAddressStore.getPage(1, 1, null)).containsExactly(MALTHOUSE);
+    }
+
+    @DisplayName("created(), updated(), deleted() - Given writes while the table loads, then they are applied once it has loaded")
+    @Test
+    void load_when_writtenDuringLoad_then_writesReplayed() {
+
+        Address moved = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 7DH");
+        given(addressRepository.streamAddresses()).willAnswer(invocation -> {
+            compactAddressStore.updated(NEWBURY, moved);
+            compactAddressStore.deleted(MALTHOUSE);
+            return Stream.of(NEWBURY, MALTHOUSE);
+        });
+
+        compactAddressStore.load();
+        compactAddressStore.created(LONDON);
+
+        then(compactAddressStore.getAll(null)).containsExactly(moved, LONDON);
+    }
+}
@@ -0,0 +1,99 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.config.BlacklistProperties;
+import uk.co.gamma.address.model.Zone;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingBlacklistFetcherTest {
+
+    private static final List<Zone> PRIMARY = List.of(new Zone("rg14 7dh"));
+    private static final List<Zone> HEDGE = List.of(new Zone("rg6 1ps"));
+
+    @Mock
+    private BlacklistCircuitBreaker blacklistCircuitBreaker;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @DisplayName("getAll() - Given hedging is disabled, then the upstream is called once on the calling thread")
+    @Test
+    void getAll_when_hedgingDisabled_then_singleDirectCall() throws IOException, InterruptedException {
+
+        given(blacklistCircuitBreaker.getAll()).willReturn(PRIMARY);
+
+        then(fetcher(false, 1).getAll()).isSameAs(PRIMARY);
+        verify(blacklistCircuitBreaker, times(1)).getAll();
+    }
+
+    @DisplayName("getAll() - Given the first call is slower than the hedge delay, then the hedge result is returned")
+    @Test
+    void getAll_when_firstCallSlow_then_hedgeWins() throws IOException, InterruptedException {
+
+        given(blacklistCircuitBreaker.getAll()).willAnswer(invocation -> {
+            Thread.sleep(2000);
+            return PRIMARY;
+        }).willReturn(HEDGE);
+
+        then(fetcher(true, 1).getAll()).isSameAs(HEDGE);
+        then(meterRegistry.get("blacklist.hedge.won").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("getAll() - Given the first call fails, then a hedge is started straight away")
+    @Test
+    void getAll_when_firstCallFails_then_hedgeStartedImmediately() throws IOException, InterruptedException {
+
+        given(blacklistCircuitBreaker.getAll()).willThrow(new IOException()).willReturn(HEDGE);
+
+        long start = System.nanoTime();
+        List<Zone> actual = fetcher(true, 1, Duration.ofSeconds(10)).getAll();
+
+        then(actual).isSameAs(HEDGE);
+        then(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+    }
+
+    @DisplayName("getAll() - Given no hedge may be started, then the failure of the first call is thrown")
+    @Test
+    void getAll_when_noHedgePermits_then_firstFailureThrown() throws IOException, InterruptedException {
+
+        given(blacklistCircuitBreaker.getAll()).willThrow(new IOException());
+
+        thenExceptionOfType(IOException.class).isThrownBy(() -> fetcher(true, 0).getAll());
+        verify(blacklistCircuitBreaker, times(1)).getAll();
+    }
+
+    private HedgingBlacklistFetcher fetcher(boolean enabled, int maxConcurrentHedges) {
+        return fetcher(enabled, maxConcurrentHedges, Duration.ofMillis(50));
+    }
+
+    private HedgingBlacklistFetcher fetcher(boolean enabled, int maxConcurrentHedges, Duration delay) {
+        BlacklistProperties properties = new BlacklistProperties();
+        properties.getHedging().setEnabled(enabled);
+        properties.getHedging().setDelay(delay);
+        properties.getHedging().setMaxConcurrentHedges(maxConcurrentHedges);
+        return new HedgingBlacklistFetcher(blacklistCircuitBreaker, executor, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,104 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.config.AddressProperties;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class KnownPostcodeFilterTest {
+
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private KnownPostcodeFilter knownPostcodeFilter;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        knownPostcodeFilter = new KnownPostcodeFilter(addressRepository, transactionManager, new AddressProperties(), meterRegistry);
+    }
+
+    private void buildWith(String... postcodeKeys) {
+        given(addressRepository.countPostcodeKeys()).willReturn((long) postcodeKeys.length);
+        given(addressRepository.streamPostcodeKeys()).willReturn(Stream.of(postcodeKeys));
+        knownPostcodeFilter.rebuild();
+    }
+
+    @DisplayName("mightBeKnown() - Given the filter is not built yet, then every postcode might be known")
+    @Test
+    void mightBeKnown_when_notBuilt_then_true() {
+
+        then(knownPostcodeFilter.mightBeKnown("ZZ9 9ZZ")).isTrue();
+        then(knownPostcodeFilter.expectedFalsePositiveRate()).isEqualTo(1);
+    }
+
+    @DisplayName("mightBeKnown() - Given a built filter, then held postcodes might be known and others are misses")
+    @Test
+    void mightBeKnown_when_built_then_unknownPostcodesMissed() {
+
+        buildWith("RG14 5BY", "M17 1BR");
+
+        then(knownPostcodeFilter.mightBeKnown("RG14 5BY")).isTrue();
+        then(knownPostcodeFilter.mightBeKnown("M17 1BR")).isTrue();
+        then(knownPostcodeFilter.mightBeKnown("ZZ9 9ZZ")).isFalse();
+        then(meterRegistry.get("address.postcode.filter.misses").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("created(), updated() - Given new postcodes are written, then they might be known")
+    @Test
+    void created_when_newPostcode_then_mightBeKnown() {
+
+        buildWith("RG14 5BY");
+
+        knownPostcodeFilter.created(new Address(1, "Holland House", "Bury Street", "London", "ec3a 5aw"));
+        knownPostcodeFilter.updated(new Address(2, "King's House", "Kings Road West", "Newbury", "RG14 5BY"),
+                new Address(2, "King's House", "Kings Road West", "Newbury", "RG14 7DH"));
+
+        then(knownPostcodeFilter.mightBeKnown("EC3A 5AW")).isTrue();
+        then(knownPostcodeFilter.mightBeKnown("RG14 7DH")).isTrue();
+    }
+
+    @DisplayName("rebuild() - Given a postcode written while the table is read, then the new filter knows it")
+    @Test
+    void rebuild_when_writtenDuringRebuild_then_kept() {
+
+        given(addressRepository.countPostcodeKeys()).willReturn(1L);
+        given(addressRepository.streamPostcodeKeys()).willAnswer(invocation -> {
+            knownPostcodeFilter.created(new Address(1, "Holland House", "Bury Street", "London", "EC3A 5AW"));
+            return Stream.of("RG14 5BY");
+        });
+
+        knownPostcodeFilter.rebuild();
+
+        then(knownPostcodeFilter.mightBeKnown("EC3A 5AW")).isTrue();
+    }
+
+    @DisplayName("expectedFalsePositiveRate() - Given a built filter, then the rate is published as a gauge")
+    @Test
+    void expectedFalsePositiveRate_when_built_then_gaugePublished() {
+
+        buildWith("RG14 5BY");
+
+        double actual = meterRegistry.get("address.postcode.filter.fpp").gauge().value();
+
+        then(actual).isLessThan(0.01).isEqualTo(knownPostcodeFilter.expectedFalsePositiveRate());
+    }
+}
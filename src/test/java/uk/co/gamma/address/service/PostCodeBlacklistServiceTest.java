@@ -6,21 +6,27 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.exception.BlackListReadingException;
+import uk.co.gamma.address.exception.BlacklistUnavailableException;
 import uk.co.gamma.address.model.Address;
 import uk.co.gamma.address.model.Zone;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
 
 import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 
 @ExtendWith(MockitoExtension.class)
 public class PostCodeBlacklistServiceTest {
 
     @Mock
-    private BlackListService blackListService;
+    private BlacklistSnapshotCache blacklistSnapshotCache;
 
     @InjectMocks
     private PostCodeBlacklistService postCodeBlacklistService;
@@ -41,7 +47,7 @@ public class PostCodeBlacklistServiceTest {
         List<Zone> zones = List.of(new Zone("rg14 7dh"), new Zone("rg6 1ps"));
 
         //given
-        given(blackListService.getAll()).willReturn(zones);
+        given(blacklistSnapshotCache.get()).willReturn(new BlacklistSnapshot(1, zones, Instant.now()));
 
         List<Address> actual = postCodeBlacklistService.filterBlacklistedAddresses(addresses);
 
@@ -66,7 +72,7 @@ public class PostCodeBlacklistServiceTest {
         List<Zone> zones = List.of(new Zone("rg14 7dh"), new Zone("rg6 1ps"));
 
         //given
-        given(blackListService.getAll()).willReturn(zones);
+        given(blacklistSnapshotCache.get()).willReturn(new BlacklistSnapshot(1, zones, Instant.now()));
 
         List<Address> actual = postCodeBlacklistService.filterBlacklistedAddresses(addresses);
 
@@ -82,7 +88,7 @@ public class PostCodeBlacklistServiceTest {
         List<Zone> zones = List.of(new Zone("rg14 7dh"), new Zone("rg6 1ps"));
 
         //given
-        given(blackListService.getAll()).willReturn(zones);
+        given(blacklistSnapshotCache.get()).willReturn(new BlacklistSnapshot(1, zones, Instant.now()));
 
         boolean actual = postCodeBlacklistService.isAddressBlackListed("RG14 7DH");
 
@@ -98,12 +104,49 @@ public class PostCodeBlacklistServiceTest {
         List<Zone> zones = List.of(new Zone("rg14 7dh"), new Zone("rg6 1ps"));
 
         //given
-        given(blackListService.getAll()).willReturn(zones);
+        given(blacklistSnapshotCache.get()).willReturn(new BlacklistSnapshot(1, zones, Instant.now()));
 
         boolean actual = postCodeBlacklistService.isAddressBlackListed("RG14 5BY");
 
         // verify
         then(actual).isEqualTo(false);
     }
-}
 
+    @DisplayName("snapshotOrThrow() - Given the upstream fails once, then the read is retried")
+    @Test
+    void snapshotOrThrow_when_failedOnce_then_retried() throws IOException, InterruptedException {
+
+        BlacklistSnapshot snapshot = new BlacklistSnapshot(1, List.of(), Instant.now());
+        given(blacklistSnapshotCache.get()).willThrow(new IOException("upstream")).willReturn(snapshot);
+
+        then(postCodeBlacklistService.snapshotOrThrow()).isSameAs(snapshot);
+    }
+
+    @DisplayName("snapshotOrThrow() - Given the upstream is unavailable, then BlackListReadingException asks to retry later")
+    @Test
+    void snapshotOrThrow_when_unavailable_then_retryLaterMessage() throws IOException, InterruptedException {
+
+        given(blacklistSnapshotCache.get()).willThrow(new BlacklistUnavailableException("open"));
+
+        thenThrownBy(() -> postCodeBlacklistService.snapshotOrThrow())
+                .isInstanceOf(BlackListReadingException.class)
+                .hasMessage(AddressService.ERROR_OCCURRED_BLACKLISTED_RETRY);
+        verify(blacklistSnapshotCache, times(1)).get();
+    }
+
+    @DisplayName("snapshotOrThrow() - Given the read is interrupted, then BlackListReadingException is thrown and the interrupt kept")
+    @Test
+    void snapshotOrThrow_when_interrupted_then_interruptKept() throws IOException, InterruptedException {
+
+        given(blacklistSnapshotCache.get()).willThrow(new InterruptedException());
+
+        try {
+            thenThrownBy(() -> postCodeBlacklistService.snapshotOrThrow())
+                    .isInstanceOf(BlackListReadingException.class)
+                    .hasMessage(AddressService.ERROR_OCCURRED_BLACKLISTED);
+            then(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.PostcodeSuggestion;
+import uk.co.gamma.address.model.Zone;
+import uk.co.gamma.address.model.db.repository.AddressRepository;
+
+@ExtendWith(MockitoExtension.class)
+class PostcodeSuggestionIndexTest {
+
+    private static final Address KINGS_HOUSE = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+    private static final Address QUEENS_HOUSE = new Address(2, "Queen's House", "Kings Road West", "Newbury", "rg14 5by");
+    private static final Address MALTHOUSE = new Address(3, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH");
+    private static final Address HOLLAND_HOUSE = new Address(5, "Holland House", "Bury Street", "London", "EC3A 5AW");
+
+    @Mock
+    private AddressRepository addressRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PostcodeSuggestionIndex postcodeSuggestionIndex;
+
+    @BeforeEach
+    void setup() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        postcodeSuggestionIndex = new PostcodeSuggestionIndex(addressRepository, transactionManager);
+    }
+
+    @DisplayName("suggest() - Given a prefix in any case and spacing, then the matching postcodes are returned without the blacklisted ones")
+    @Test
+    void suggest_when_blacklistedPostcode_then_excluded() {
+
+        rebuild(KINGS_HOUSE, QUEENS_HOUSE, MALTHOUSE, HOLLAND_HOUSE);
+        BlacklistMatcher matcher = BlacklistMatcher.compile(List.of(new Zone("RG14 7DH")));
+
+        then(postcodeSuggestionIndex.suggest(" rg14  ", 10, matcher)).containsExactly(new PostcodeSuggestion("RG14 5BY", 2));
+        then(postcodeSuggestionIndex.suggest("rg14", 10, null)).extracting(PostcodeSuggestion::postcode).containsExactly("RG14 5BY", "RG14 7DH");
+        then(postcodeSuggestionIndex.suggest(" ", 10, null)).isEmpty();
+    }
+
+    @DisplayName("created(), updated(), deleted() - Given writes, then the index follows them")
+    @Test
+    void changes_when_addressesWritten_then_indexUpdated() {
+
+        rebuild(KINGS_HOUSE, QUEENS_HOUSE, MALTHOUSE, HOLLAND_HOUSE);
+        Address created = new Address(4, "The Malthouse", "Elevator Road", "Manchester", "m17 1br");
+        postcodeSuggestionIndex.created(created);
+        then(postcodeSuggestionIndex.suggest("M17", 10, null)).containsExactly(new PostcodeSuggestion("M17 1BR", 1));
+
+        Address moved = new Address(4, "The Malthouse", "Elevator Road", "Manchester", "EC3A 5AW");
+        postcodeSuggestionIndex.updated(created, moved);
+        then(postcodeSuggestionIndex.suggest("M17", 10, null)).isEmpty();
+        then(postcodeSuggestionIndex.suggest("EC3A", 10, null)).containsExactly(new PostcodeSuggestion("EC3A 5AW", 2));
+
+        postcodeSuggestionIndex.deleted(moved);
+        then(postcodeSuggestionIndex.suggest("EC3A", 10, null)).containsExactly(new PostcodeSuggestion("EC3A 5AW", 1));
+    }
+
+    @DisplayName("rebuild() - Given writes while the table loads, then each address is counted once, under its latest postcode")
+    @Test
+    void rebuild_when_writtenDuringLoad_then_countedOnce() {
+
+        Address moved = new Address(3, "The Malthouse", "Elevator Road", "Manchester", "M17 1BR");
+        Address created = new Address(4, "Mill House", "Mill Lane", "Newbury", "RG14 7DH");
+        given(addressRepository.streamAddresses()).willAnswer(invocation -> {
+            // the load reads the table as it was after the update and the create, and before the delete
+            postcodeSuggestionIndex.updated(MALTHOUSE, moved);
+            postcodeSuggestionIndex.created(created);
+            postcodeSuggestionIndex.deleted(QUEENS_HOUSE);
+            return Stream.of(KINGS_HOUSE, QUEENS_HOUSE, moved, created, HOLLAND_HOUSE);
+        });
+
+        postcodeSuggestionIndex.rebuild();
+
+        then(postcodeSuggestionIndex.suggest("", 1, null)).isEmpty();
+        then(postcodeSuggestionIndex.suggest("RG14", 10, null))
+                .containsExactly(new PostcodeSuggestion("RG14 5BY", 1), new PostcodeSuggestion("RG14 7DH", 1));
+        then(postcodeSuggestionIndex.suggest("M17", 10, null)).containsExactly(new PostcodeSuggestion("M17 1BR", 1));
+
+        postcodeSuggestionIndex.deleted(created);
+        then(postcodeSuggestionIndex.suggest("RG14 7", 10, null)).isEmpty();
+    }
+
+    private void rebuild(Address... addresses) {
+        given(addressRepository.streamAddresses()).willReturn(Stream.of(addresses));
+        postcodeSuggestionIndex.rebuild();
+    }
+}
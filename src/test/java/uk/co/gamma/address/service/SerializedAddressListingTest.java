@@ -0,0 +1,107 @@
+package uk.co.gamma.address.service;
+
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.co.gamma.address.model.Address;
+import uk.co.gamma.address.model.Zone;
+
+@ExtendWith(MockitoExtension.class)
+class SerializedAddressListingTest {
+
+    private static final Address NEWBURY = new Address(1, "King's House", "Kings Road West", "Newbury", "RG14 5BY");
+    private static final Address BLACKLISTED = new Address(2, "The Malthouse", "Elevator Road", "Newbury", "RG14 7DH");
+
+    @Mock
+    private AddressService addressService;
+    @Mock
+    private PostCodeBlacklistService postCodeBlacklistService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AddressDatasetVersion addressDatasetVersion = new AddressDatasetVersion();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SerializedAddressListing serializedAddressListing;
+
+    @BeforeEach
+    void setup() {
+        serializedAddressListing = new SerializedAddressListing(addressService, postCodeBlacklistService, addressDatasetVersion, objectMapper, meterRegistry);
+    }
+
+    private static BlacklistSnapshot blacklist(long version) {
+        return new BlacklistSnapshot(version, List.of(new Zone("RG14 7DH")), Instant.now());
+    }
+
+    @DisplayName("get() - Given the data did not change, then the listing is serialized once")
+    @Test
+    void get_when_unchanged_then_serializedOnce() throws IOException {
+
+        given(addressService.getAll(true)).willReturn(List.of(NEWBURY, BLACKLISTED));
+
+        SerializedAddressListing.Listing first = serializedAddressListing.get(true);
+        SerializedAddressListing.Listing second = serializedAddressListing.get(true);
+
+        then(second).isSameAs(first);
+        then(objectMapper.readValue(first.json(), Address[].class)).containsExactly(NEWBURY, BLACKLISTED);
+        then(meterRegistry.get("address.listing.serializations").counter().count()).isEqualTo(1);
+    }
+
+    @DisplayName("get() - Given an address is written, then the listing is serialized again")
+    @Test
+    void get_when_written_then_serializedAgain() {
+
+        given(addressService.getAll(true)).willReturn(List.of(NEWBURY), List.of(NEWBURY, BLACKLISTED));
+        serializedAddressListing.get(true);
+
+        addressDatasetVersion.created(BLACKLISTED);
+        SerializedAddressListing.Listing actual = serializedAddressListing.get(true);
+
+        then(new String(actual.json(), StandardCharsets.UTF_8)).contains("The Malthouse");
+        verify(addressService, times(2)).getAll(true);
+    }
+
+    @DisplayName("get() - Given blacklisted addresses are excluded, then they are filtered with the snapshot and re-serialized when its version moves")
+    @Test
+    void get_when_blacklistVersionMoves_then_serializedAgain() throws IOException, InterruptedException {
+
+        given(addressService.getAll(true)).willReturn(List.of(NEWBURY, BLACKLISTED));
+        given(postCodeBlacklistService.snapshotOrThrow()).willReturn(blacklist(1), blacklist(1), blacklist(2));
+
+        SerializedAddressListing.Listing first = serializedAddressListing.get(false);
+        SerializedAddressListing.Listing same = serializedAddressListing.get(false);
+        SerializedAddressListing.Listing next = serializedAddressListing.get(false);
+
+        then(objectMapper.readValue(first.json(), Address[].class)).containsExactly(NEWBURY);
+        then(same).isSameAs(first);
+        then(next).isNotSameAs(first);
+        then(next.blacklistVersion()).isEqualTo(2);
+    }
+
+    @DisplayName("get() - Given a listing, then the gzip bytes hold the same JSON")
+    @Test
+    void get_when_serialized_then_gzipMatchesJson() throws IOException {
+
+        given(addressService.getAll(true)).willReturn(List.of(NEWBURY));
+
+        SerializedAddressListing.Listing actual = serializedAddressListing.get(true);
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(actual.gzip()))) {
+            then(gzip.readAllBytes()).isEqualTo(actual.json());
+        }
+    }
+}